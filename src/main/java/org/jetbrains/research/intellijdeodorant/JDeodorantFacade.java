@@ -1,9 +1,14 @@
 package org.jetbrains.research.intellijdeodorant;
 
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiVariable;
-import org.jetbrains.research.intellijdeodorant.core.ast.ASTReader;
+import org.jetbrains.research.intellijdeodorant.core.ast.AnalysisModelService;
 import org.jetbrains.research.intellijdeodorant.core.ast.ClassObject;
+import org.jetbrains.research.intellijdeodorant.core.ast.FieldObject;
 import org.jetbrains.research.intellijdeodorant.core.ast.MethodObject;
 import org.jetbrains.research.intellijdeodorant.core.ast.SystemObject;
 import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.cfg.*;
@@ -11,23 +16,27 @@ import org.jetbrains.research.intellijdeodorant.core.distance.*;
 import org.jetbrains.research.intellijdeodorant.ide.refactoring.typeStateChecking.TypeCheckEliminationGroup;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class JDeodorantFacade {
+    private static final Logger LOG = Logger.getInstance(JDeodorantFacade.class);
 
     public static List<MoveMethodCandidateRefactoring> getMoveMethodRefactoringOpportunities(ProjectInfo project, ProgressIndicator indicator, Set<String> classNamesToBeExamined) {
-        new ASTReader(project, indicator);
-        MySystem system = new MySystem(ASTReader.getSystemObject(), false);
+        SystemObject systemObject = getSystemObject(project, indicator);
+        MySystem system = new MySystem(systemObject, false);
         DistanceMatrix distanceMatrix = new DistanceMatrix(system);
         List<MoveMethodCandidateRefactoring> candidateRefactoring =
                 distanceMatrix.getMoveMethodCandidateRefactoringsByAccess(classNamesToBeExamined, indicator);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Move Method candidates rejected per stage: " + distanceMatrix.getMoveMethodRejections());
+        }
         List<MoveMethodCandidateRefactoring> moveMethodCandidateList = new ArrayList<>(candidateRefactoring);
         Collections.sort(moveMethodCandidateList);
         return moveMethodCandidateList;
     }
 
     public static TreeSet<ExtractClassCandidateGroup> getExtractClassRefactoringOpportunities(ProjectInfo project, ProgressIndicator indicator) {
-        new ASTReader(project, indicator);
-        SystemObject systemObject = ASTReader.getSystemObject();
+        SystemObject systemObject = getSystemObject(project, indicator);
         if (systemObject != null) {
             List<ClassObject> classObjectsToBeExamined = systemObject.getClassObjects();
             Set<String> classNamesToBeExamined = new LinkedHashSet<>();
@@ -60,30 +69,64 @@ public class JDeodorantFacade {
     }
 
     public static Set<ASTSliceGroup> getExtractMethodRefactoringOpportunities(ProjectInfo project, ProgressIndicator indicator) {
-        new ASTReader(project, indicator);
-
-        SystemObject systemObject = ASTReader.getSystemObject();
+        SystemObject systemObject = getSystemObject(project, indicator);
         Set<ASTSliceGroup> extractedSliceGroups = new TreeSet<>();
         if (systemObject != null) {
             Set<ClassObject> classObjectsToBeExamined = new LinkedHashSet<>(systemObject.getClassObjects());
-
+            List<ClassObject> declaringClasses = new ArrayList<>();
+            List<MethodObject> methodsToBeExamined = new ArrayList<>();
             for (ClassObject classObject : classObjectsToBeExamined) {
                 if (!classObject.isEnum() && !classObject.isInterface()) {
                     ListIterator<MethodObject> methodIterator = classObject.getMethodIterator();
                     while (methodIterator.hasNext()) {
-                        MethodObject methodObject = methodIterator.next();
-                        processMethod(extractedSliceGroups, classObject, methodObject);
+                        declaringClasses.add(classObject);
+                        methodsToBeExamined.add(methodIterator.next());
                     }
                 }
             }
+
+            indicator.setText(IntelliJDeodorantBundle.message("long.method.detect.indicator.status"));
+            indicator.setFraction(0.0);
+            int methodsCount = methodsToBeExamined.size();
+            List<Integer> methodIndices = new ArrayList<>(methodsCount);
+            for (int i = 0; i < methodsCount; i++) {
+                methodIndices.add(i);
+            }
+            // every method gets its own bucket, so the groups are merged below in the same order as a serial run
+            List<List<ASTSliceGroup>> sliceGroupsPerMethod = new ArrayList<>(Collections.nCopies(methodsCount, null));
+            PDGSliceCache sliceCache = AnalysisModelService.getInstance(project.getProject()).getSliceCache();
+            AtomicInteger processedMethods = new AtomicInteger();
+            boolean completed = JobLauncher.getInstance().invokeConcurrentlyUnderProgress(methodIndices, indicator, i -> {
+                sliceGroupsPerMethod.set(i, getSliceGroups(sliceCache, systemObject, declaringClasses.get(i), methodsToBeExamined.get(i)));
+                indicator.setFraction((double) processedMethods.incrementAndGet() / methodsCount);
+                return true;
+            });
+            if (!completed) {
+                throw new ProcessCanceledException();
+            }
+            for (List<ASTSliceGroup> sliceGroups : sliceGroupsPerMethod) {
+                extractedSliceGroups.addAll(sliceGroups);
+            }
         }
         return extractedSliceGroups;
     }
 
-    private static void processMethod(final Set<ASTSliceGroup> extractedSliceGroups, ClassObject classObject, MethodObject methodObject) {
+    private static List<ASTSliceGroup> getSliceGroups(PDGSliceCache sliceCache, SystemObject systemObject, ClassObject classObject, MethodObject methodObject) {
+        PsiMethod psiMethod = methodObject.getMethodDeclaration();
+        Set<FieldObject> accessedFields = classObject.getFieldsAccessedInsideMethod(methodObject, systemObject);
+        List<ASTSliceGroup> sliceGroups = sliceCache.get(psiMethod, accessedFields);
+        if (sliceGroups == null) {
+            sliceGroups = new ArrayList<>();
+            processMethod(sliceGroups, classObject, methodObject, accessedFields);
+            sliceCache.put(psiMethod, accessedFields, sliceGroups);
+        }
+        return sliceGroups;
+    }
+
+    private static void processMethod(final Collection<ASTSliceGroup> extractedSliceGroups, ClassObject classObject, MethodObject methodObject, Set<FieldObject> accessedFields) {
         if (methodObject.getMethodBody() != null) {
             CFG cfg = new CFG(methodObject);
-            PDG pdg = new PDG(cfg, classObject.getPsiFile(), classObject.getFieldsAccessedInsideMethod(methodObject));
+            PDG pdg = new PDG(cfg, classObject.getPsiFile(), accessedFields);
             for (PsiVariable declaration : pdg.getVariableDeclarationsInMethod()) {
                 PlainVariable variable = new PlainVariable(declaration);
                 PDGSliceUnionCollection sliceUnionCollection = new PDGSliceUnionCollection(pdg, variable);
@@ -150,8 +193,7 @@ public class JDeodorantFacade {
     }
 
     public static Set<TypeCheckEliminationGroup> getTypeCheckEliminationRefactoringOpportunities(ProjectInfo project, ProgressIndicator indicator) {
-        new ASTReader(project, indicator);
-        SystemObject systemObject = ASTReader.getSystemObject();
+        SystemObject systemObject = getSystemObject(project, indicator);
 
         Set<ClassObject> classObjectsToBeExamined = new LinkedHashSet<>();
         for (ClassObject classObject : systemObject.getClassObjects()) {
@@ -161,4 +203,8 @@ public class JDeodorantFacade {
         }
         return new TreeSet<>(systemObject.generateTypeCheckEliminations(classObjectsToBeExamined, indicator));
     }
+
+    private static SystemObject getSystemObject(ProjectInfo project, ProgressIndicator indicator) {
+        return AnalysisModelService.getInstance(project.getProject()).getSystemObject(project, indicator);
+    }
 }
@@ -0,0 +1,266 @@
+package org.jetbrains.research.intellijdeodorant.core;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
+import com.intellij.util.SmartList;
+import org.jetbrains.research.intellijdeodorant.core.ast.*;
+import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.cfg.AbstractVariable;
+import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.cfg.CompositeVariable;
+import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.cfg.PlainVariable;
+
+import java.util.*;
+
+/**
+ * Classifies the field accesses and method invocations of a method to be moved as dependencies on its source class
+ * or on its target class. Source class methods delegating to the target class are analysed together with the method.
+ */
+abstract class FeatureEnvyDependencyClassifier {
+    //if true, every access is reported once instead of once per occurrence
+    private final boolean distinct;
+
+    FeatureEnvyDependencyClassifier(boolean distinct) {
+        this.distinct = distinct;
+    }
+
+    abstract void addSourceMethodInvocation(MethodInvocationObject methodInvocation);
+
+    abstract void addTargetMethodInvocation(MethodInvocationObject methodInvocation);
+
+    abstract void addSourceFieldRead(FieldInstructionObject fieldInstruction);
+
+    abstract void addSourceFieldWrite(FieldInstructionObject fieldInstruction);
+
+    abstract void addTargetFieldRead(FieldInstructionObject fieldInstruction);
+
+    abstract void addTargetFieldWrite(FieldInstructionObject fieldInstruction);
+
+    final void classify(ClassObject sourceClass, MethodObject methodToBeMoved, ClassObject targetClass) {
+        List<MethodInvocationObject> sourceMethodInvocations = getInvokedMethodsThroughThisReference(methodToBeMoved);
+        List<FieldInstructionObject> fieldInstructions = new SmartList<>(methodToBeMoved.getFieldInstructions());
+        List<LocalVariableInstructionObject> localVariableInstructions = new SmartList<>(methodToBeMoved.getLocalVariableInstructions());
+        Map<AbstractVariable, List<MethodInvocationObject>> externalMethodInvocationsThroughFieldsMap = new LinkedHashMap<>();
+        addAll(externalMethodInvocationsThroughFieldsMap, getInvokedMethodsThroughFields(methodToBeMoved));
+        Map<AbstractVariable, List<MethodInvocationObject>> externalMethodInvocationsThroughParametersMap = new LinkedHashMap<>();
+        addAll(externalMethodInvocationsThroughParametersMap, getInvokedMethodsThroughParameters(methodToBeMoved));
+
+        List<PlainVariable> usedFieldsThroughThisReference = getUsedFieldsThroughThisReference(methodToBeMoved);
+        List<PlainVariable> definedFieldsThroughThisReference = getDefinedFieldsThroughThisReference(methodToBeMoved);
+        List<AbstractVariable> usedFieldsThroughFields = getUsedFieldsThroughFields(methodToBeMoved);
+        List<AbstractVariable> usedFieldsThroughParameters = getUsedFieldsThroughParameters(methodToBeMoved);
+        List<AbstractVariable> definedFieldsThroughFields = getDefinedFieldsThroughFields(methodToBeMoved);
+        List<AbstractVariable> definedFieldsThroughParameters = getDefinedFieldsThroughParameters(methodToBeMoved);
+
+        for (MethodInvocationObject methodInvocation : sourceMethodInvocations) {
+            boolean delegatesToTarget = false;
+            MethodObject delegateMethod = sourceClass.getMethod(methodInvocation);
+            if (delegateMethod != null) {
+                MethodInvocationObject delegateMethodInvocation = delegateMethod.isDelegate();
+                if (delegateMethodInvocation != null && delegateMethodInvocation.getOriginClassName().equals(targetClass.getName())) {
+                    delegatesToTarget = true;
+                    //include delegate method in the analysis
+                    fieldInstructions.addAll(delegateMethod.getFieldInstructions());
+                    localVariableInstructions.addAll(delegateMethod.getLocalVariableInstructions());
+                    addAll(externalMethodInvocationsThroughFieldsMap, getInvokedMethodsThroughFields(delegateMethod));
+                    addAll(externalMethodInvocationsThroughParametersMap, getInvokedMethodsThroughParameters(delegateMethod));
+                    usedFieldsThroughThisReference.addAll(getUsedFieldsThroughThisReference(delegateMethod));
+                    definedFieldsThroughThisReference.addAll(getDefinedFieldsThroughThisReference(delegateMethod));
+                    usedFieldsThroughFields.addAll(getUsedFieldsThroughFields(delegateMethod));
+                    usedFieldsThroughParameters.addAll(getUsedFieldsThroughParameters(delegateMethod));
+                    definedFieldsThroughFields.addAll(getDefinedFieldsThroughFields(delegateMethod));
+                    definedFieldsThroughParameters.addAll(getDefinedFieldsThroughParameters(delegateMethod));
+                }
+            }
+            if (!delegatesToTarget) {
+                addSourceMethodInvocation(methodInvocation);
+            }
+        }
+
+        processExternalMethodInvocations(externalMethodInvocationsThroughFieldsMap, fieldInstructions, localVariableInstructions, targetClass);
+        processExternalMethodInvocations(externalMethodInvocationsThroughParametersMap, fieldInstructions, localVariableInstructions, targetClass);
+
+        for (PlainVariable variable : usedFieldsThroughThisReference) {
+            FieldInstructionObject fieldInstruction = findFieldInstruction(variable, fieldInstructions);
+            if (fieldInstruction != null && !fieldInstruction.isStatic()) {
+                if (fieldInstruction.getOwnerClass().equals(targetClass.getPsiClass().getQualifiedName())) {
+                    //the used field in inherited from a superclass, which is the target
+                    addTargetFieldRead(fieldInstruction);
+                } else {
+                    addSourceFieldRead(fieldInstruction);
+                }
+            }
+        }
+
+        for (PlainVariable variable : definedFieldsThroughThisReference) {
+            FieldInstructionObject fieldInstruction = findFieldInstruction(variable, fieldInstructions);
+            if (fieldInstruction != null && fieldInstruction.getOwnerClass().equals(targetClass.getName())) {
+                //the defined field in inherited from a superclass, which is the target
+                addTargetFieldWrite(fieldInstruction);
+            } else {
+                addSourceFieldWrite(fieldInstruction);
+            }
+        }
+
+        handleUsedFields(usedFieldsThroughFields, fieldInstructions, targetClass);
+        handleUsedFields(usedFieldsThroughParameters, fieldInstructions, targetClass);
+
+        handleDefinedFields(definedFieldsThroughFields, fieldInstructions, localVariableInstructions, targetClass);
+        handleDefinedFields(definedFieldsThroughParameters, fieldInstructions, localVariableInstructions, targetClass);
+    }
+
+    private List<MethodInvocationObject> getInvokedMethodsThroughThisReference(MethodObject method) {
+        return new SmartList<>(distinct ? method.getInvokedMethodsThroughThisReference() : method.getNonDistinctInvokedMethodsThroughThisReference());
+    }
+
+    private Map<AbstractVariable, ? extends Collection<MethodInvocationObject>> getInvokedMethodsThroughFields(MethodObject method) {
+        return distinct ? method.getInvokedMethodsThroughFields() : method.getNonDistinctInvokedMethodsThroughFields();
+    }
+
+    private Map<AbstractVariable, ? extends Collection<MethodInvocationObject>> getInvokedMethodsThroughParameters(MethodObject method) {
+        return distinct ? method.getInvokedMethodsThroughParameters() : method.getNonDistinctInvokedMethodsThroughParameters();
+    }
+
+    private List<PlainVariable> getUsedFieldsThroughThisReference(MethodObject method) {
+        return new SmartList<>(distinct ? method.getUsedFieldsThroughThisReference() : method.getNonDistinctUsedFieldsThroughThisReference());
+    }
+
+    private List<PlainVariable> getDefinedFieldsThroughThisReference(MethodObject method) {
+        return new SmartList<>(distinct ? method.getDefinedFieldsThroughThisReference() : method.getNonDistinctDefinedFieldsThroughThisReference());
+    }
+
+    private List<AbstractVariable> getUsedFieldsThroughFields(MethodObject method) {
+        return new SmartList<>(distinct ? method.getUsedFieldsThroughFields() : method.getNonDistinctUsedFieldsThroughFields());
+    }
+
+    private List<AbstractVariable> getUsedFieldsThroughParameters(MethodObject method) {
+        return new SmartList<>(distinct ? method.getUsedFieldsThroughParameters() : method.getNonDistinctUsedFieldsThroughParameters());
+    }
+
+    private List<AbstractVariable> getDefinedFieldsThroughFields(MethodObject method) {
+        return new SmartList<>(distinct ? method.getDefinedFieldsThroughFields() : method.getNonDistinctDefinedFieldsThroughFields());
+    }
+
+    private List<AbstractVariable> getDefinedFieldsThroughParameters(MethodObject method) {
+        return new SmartList<>(distinct ? method.getDefinedFieldsThroughParameters() : method.getNonDistinctDefinedFieldsThroughParameters());
+    }
+
+    private static void addAll(Map<AbstractVariable, List<MethodInvocationObject>> externalMethodInvocationMap,
+                               Map<AbstractVariable, ? extends Collection<MethodInvocationObject>> methodInvocationMap) {
+        for (AbstractVariable variable : methodInvocationMap.keySet()) {
+            externalMethodInvocationMap.computeIfAbsent(variable, key -> new ArrayList<>()).addAll(methodInvocationMap.get(variable));
+        }
+    }
+
+    private void handleUsedFields(List<AbstractVariable> usedFields, List<FieldInstructionObject> fieldInstructions, ClassObject targetClass) {
+        for (AbstractVariable abstractVariable : usedFields) {
+            CompositeVariable compositeVariable = (CompositeVariable) abstractVariable;
+            AbstractVariable leftPart = compositeVariable.getLeftPart();
+            PlainVariable variable;
+            if (leftPart instanceof CompositeVariable) {
+                variable = ((CompositeVariable) leftPart).getFinalVariable();
+            } else {
+                variable = (PlainVariable) leftPart;
+            }
+
+            PsiClass superClassTarget = targetClass.getPsiClass().getSuperClass();
+            if (variable.getType().equals(targetClass.getName()) ||
+                    superClassTarget != null && variable.getType().equals(superClassTarget.getQualifiedName())) {
+                FieldInstructionObject fieldInstruction = findFieldInstruction(compositeVariable.getFinalVariable(), fieldInstructions);
+                if (fieldInstruction != null && !fieldInstruction.isStatic()) {
+                    addTargetFieldRead(fieldInstruction);
+                }
+            }
+        }
+    }
+
+    private void handleDefinedFields(List<AbstractVariable> definedFields, List<FieldInstructionObject> fieldInstructions,
+                                     List<LocalVariableInstructionObject> localVariableInstructions, ClassObject targetClass) {
+        for (AbstractVariable abstractVariable : definedFields) {
+            CompositeVariable compositeVariable = (CompositeVariable) abstractVariable;
+            AbstractVariable leftPart = compositeVariable.getLeftPart();
+            PlainVariable variable;
+            if (leftPart instanceof CompositeVariable) {
+                variable = ((CompositeVariable) leftPart).getFinalVariable();
+            } else {
+                variable = (PlainVariable) leftPart;
+            }
+            PsiElement variableTypeBinding = null;
+            if (variable.isField()) {
+                FieldInstructionObject fieldInstruction = findFieldInstruction(variable, fieldInstructions);
+                if (fieldInstruction != null)
+                    variableTypeBinding = fieldInstruction.getElement();
+            } else if (variable.isParameter()) {
+                LocalVariableInstructionObject localVariableInstruction = findLocalVariableInstruction(variable, localVariableInstructions);
+                if (localVariableInstruction != null)
+                    variableTypeBinding = localVariableInstruction.getReference();
+            }
+            PsiClass targetClassBinding = (PsiClass) targetClass.getAbstractTypeDeclaration();
+            if (variable.getType().equals(targetClass.getName()) ||
+                    (variableTypeBinding != null && targetClassBinding.equals(variableTypeBinding.getOriginalElement()))) {
+                FieldInstructionObject fieldInstruction = findFieldInstruction(compositeVariable.getFinalVariable(), fieldInstructions);
+                addTargetFieldWrite(fieldInstruction);
+            }
+        }
+    }
+
+    private FieldInstructionObject findFieldInstruction(PlainVariable variable, List<FieldInstructionObject> fieldInstructions) {
+        for (FieldInstructionObject fieldInstruction : fieldInstructions) {
+            PsiElement psiElement = fieldInstruction.getElement();
+            if (psiElement instanceof PsiField) {
+                PsiField psiField = (PsiField) psiElement;
+                if (psiField.getName().equals(variable.getName()))
+                    return fieldInstruction;
+            }
+        }
+        return null;
+    }
+
+    private LocalVariableInstructionObject findLocalVariableInstruction(PlainVariable variable, List<LocalVariableInstructionObject> localVariableInstructions) {
+        for (LocalVariableInstructionObject localVariableInstruction : localVariableInstructions) {
+            PsiElement resolvedElement = localVariableInstruction.getReference().resolve();
+            if (variable.getOrigin().equals(resolvedElement)) {
+                return localVariableInstruction;
+            }
+        }
+        return null;
+    }
+
+    private void processExternalMethodInvocations(Map<AbstractVariable, List<MethodInvocationObject>> externalMethodInvocationMap,
+                                                  List<FieldInstructionObject> fieldInstructions, List<LocalVariableInstructionObject> localVariableInstructions, ClassObject targetClassObject) {
+        for (AbstractVariable abstractVariable : externalMethodInvocationMap.keySet()) {
+            PlainVariable variable;
+            if (abstractVariable instanceof CompositeVariable) {
+                variable = ((CompositeVariable) abstractVariable).getFinalVariable();
+            } else {
+                variable = (PlainVariable) abstractVariable;
+            }
+            PsiElement variableType = null;
+            if (variable.isField()) {
+                FieldInstructionObject fieldInstruction = findFieldInstruction(variable, fieldInstructions);
+                if (fieldInstruction != null)
+                    variableType = fieldInstruction.getElement();
+            } else if (variable.isParameter()) {
+                LocalVariableInstructionObject localVariableInstruction = findLocalVariableInstruction(variable, localVariableInstructions);
+                if (localVariableInstruction != null)
+                    variableType = localVariableInstruction.getReference();
+            }
+            PsiElement targetPsiClass = targetClassObject.getAbstractTypeDeclaration();
+            if (variable.getType().equals(targetClassObject.getPsiClass().getQualifiedName())) {
+                handleExternalMethodInvocation(externalMethodInvocationMap.get(abstractVariable));
+            } else if (variableType instanceof PsiClass) {
+                PsiClass psiClass = ((PsiClass) targetPsiClass);
+                PsiClass targetClass = (PsiClass) targetPsiClass;
+                if (targetClass.getQualifiedName() != null && psiClass.getSuperClass() != null
+                        && targetClass.getQualifiedName().equals(psiClass.getSuperClass().getQualifiedName())) {
+                    handleExternalMethodInvocation(externalMethodInvocationMap.get(abstractVariable));
+                }
+            }
+        }
+    }
+
+    private void handleExternalMethodInvocation(List<MethodInvocationObject> externalMethodInvocations) {
+        for (MethodInvocationObject methodInvocation : externalMethodInvocations) {
+            addTargetMethodInvocation(methodInvocation);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.jetbrains.research.intellijdeodorant.core;
+
+import org.jetbrains.research.intellijdeodorant.core.ast.ClassObject;
+import org.jetbrains.research.intellijdeodorant.core.ast.FieldInstructionObject;
+import org.jetbrains.research.intellijdeodorant.core.ast.MethodInvocationObject;
+import org.jetbrains.research.intellijdeodorant.core.ast.MethodObject;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Numbers of distinct source and target class members a method to be moved depends on, as reported by
+ * {@link FeatureEnvyVisualizationData}, computed from the distinct accesses of the method without counting occurrences.
+ */
+public class FeatureEnvyDependencyCounts extends FeatureEnvyDependencyClassifier {
+    private final Set<MethodInvocationObject> sourceMethodInvocations = new LinkedHashSet<>();
+    private final Set<MethodInvocationObject> targetMethodInvocations = new LinkedHashSet<>();
+    private final Set<FieldInstructionObject> sourceFieldInstructions = new LinkedHashSet<>();
+    private final Set<FieldInstructionObject> targetFieldInstructions = new LinkedHashSet<>();
+
+    public FeatureEnvyDependencyCounts(ClassObject sourceClass, MethodObject methodToBeMoved, ClassObject targetClass) {
+        super(true);
+        classify(sourceClass, methodToBeMoved, targetClass);
+    }
+
+    @Override
+    void addSourceMethodInvocation(MethodInvocationObject methodInvocation) {
+        sourceMethodInvocations.add(methodInvocation);
+    }
+
+    @Override
+    void addTargetMethodInvocation(MethodInvocationObject methodInvocation) {
+        targetMethodInvocations.add(methodInvocation);
+    }
+
+    @Override
+    void addSourceFieldRead(FieldInstructionObject fieldInstruction) {
+        sourceFieldInstructions.add(fieldInstruction);
+    }
+
+    @Override
+    void addSourceFieldWrite(FieldInstructionObject fieldInstruction) {
+        sourceFieldInstructions.add(fieldInstruction);
+    }
+
+    @Override
+    void addTargetFieldRead(FieldInstructionObject fieldInstruction) {
+        targetFieldInstructions.add(fieldInstruction);
+    }
+
+    @Override
+    void addTargetFieldWrite(FieldInstructionObject fieldInstruction) {
+        targetFieldInstructions.add(fieldInstruction);
+    }
+
+    public int getDistinctSourceDependencies() {
+        return sourceFieldInstructions.size() + sourceMethodInvocations.size();
+    }
+
+    public int getDistinctTargetDependencies() {
+        return targetFieldInstructions.size() + targetMethodInvocations.size();
+    }
+}
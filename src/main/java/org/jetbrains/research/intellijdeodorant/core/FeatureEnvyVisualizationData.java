@@ -1,20 +1,13 @@
 package org.jetbrains.research.intellijdeodorant.core;
 
-import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import com.intellij.psi.*;
-import com.intellij.util.SmartList;
 import org.jetbrains.research.intellijdeodorant.core.ast.*;
-import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.cfg.CompositeVariable;
-import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.cfg.PlainVariable;
-import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.cfg.AbstractVariable;
 
-public class FeatureEnvyVisualizationData implements VisualizationData {
+public class FeatureEnvyVisualizationData extends FeatureEnvyDependencyClassifier implements VisualizationData {
     private final Map<MethodInvocationObject, Integer> sourceMethodInvocationMap;
     private final Map<MethodInvocationObject, Integer> targetMethodInvocationMap;
     private final Map<FieldInstructionObject, Integer> sourceFieldReadMap;
@@ -26,267 +19,54 @@ public class FeatureEnvyVisualizationData implements VisualizationData {
     private final ClassObject targetClass;
 
     public FeatureEnvyVisualizationData(ClassObject sourceClass, MethodObject methodToBeMoved, ClassObject targetClass) {
+        super(false);
         this.sourceClass = sourceClass;
         this.methodToBeMoved = methodToBeMoved;
         this.targetClass = targetClass;
         this.sourceMethodInvocationMap = new LinkedHashMap<>();
-        SmartList<MethodInvocationObject> sourceMethodInvocations = new SmartList<>(methodToBeMoved.getNonDistinctInvokedMethodsThroughThisReference());
-
         this.targetMethodInvocationMap = new LinkedHashMap<>();
-        SmartList<FieldInstructionObject> fieldInstructions = new SmartList<>(methodToBeMoved.getFieldInstructions());
-        SmartList<LocalVariableInstructionObject> localVariableInstructions = new SmartList<>(methodToBeMoved.getLocalVariableInstructions());
-        Map<AbstractVariable, ArrayList<MethodInvocationObject>> externalMethodInvocationsThroughFieldsMap = new LinkedHashMap<>();
-        Map<AbstractVariable, ArrayList<MethodInvocationObject>> copyFromNonDistinctInvokedMethodsThroughFields = methodToBeMoved.getNonDistinctInvokedMethodsThroughFields();
-        for (AbstractVariable key : copyFromNonDistinctInvokedMethodsThroughFields.keySet()) {
-            ArrayList<MethodInvocationObject> value = new ArrayList<>(copyFromNonDistinctInvokedMethodsThroughFields.get(key));
-            externalMethodInvocationsThroughFieldsMap.put(key, value);
-        }
-        Map<AbstractVariable, ArrayList<MethodInvocationObject>> externalMethodInvocationsThroughParametersMap = new LinkedHashMap<>();
-        Map<AbstractVariable, ArrayList<MethodInvocationObject>> copyFromNonDistinctInvokedMethodsThroughParameters = methodToBeMoved.getNonDistinctInvokedMethodsThroughParameters();
-        for (AbstractVariable key : copyFromNonDistinctInvokedMethodsThroughParameters.keySet()) {
-            ArrayList<MethodInvocationObject> value = new ArrayList<>(copyFromNonDistinctInvokedMethodsThroughParameters.get(key));
-            externalMethodInvocationsThroughParametersMap.put(key, value);
-        }
-
         this.sourceFieldReadMap = new LinkedHashMap<>();
-        SmartList<PlainVariable> usedFieldsThroughThisReference = new SmartList<>(methodToBeMoved.getNonDistinctUsedFieldsThroughThisReference());
-
         this.sourceFieldWriteMap = new LinkedHashMap<>();
-        SmartList<PlainVariable> definedFieldsThroughThisReference = new SmartList<>(methodToBeMoved.getNonDistinctDefinedFieldsThroughThisReference());
-
         this.targetFieldReadMap = new LinkedHashMap<>();
-        SmartList<AbstractVariable> usedFieldsThroughFields = new SmartList<>(methodToBeMoved.getNonDistinctUsedFieldsThroughFields());
-        SmartList<AbstractVariable> usedFieldsThroughParameters = new SmartList<>(methodToBeMoved.getNonDistinctUsedFieldsThroughParameters());
-
         this.targetFieldWriteMap = new LinkedHashMap<>();
-        SmartList<AbstractVariable> definedFieldsThroughFields = new SmartList<>(methodToBeMoved.getNonDistinctDefinedFieldsThroughFields());
-        SmartList<AbstractVariable> definedFieldsThroughParameters = new SmartList<>(methodToBeMoved.getNonDistinctDefinedFieldsThroughParameters());
-
-        for (MethodInvocationObject methodInvocation : sourceMethodInvocations) {
-            boolean delegatesToTarget = false;
-            MethodObject delegateMethod = sourceClass.getMethod(methodInvocation);
-            if (delegateMethod != null) {
-                MethodInvocationObject delegateMethodInvocation = delegateMethod.isDelegate();
-                if (delegateMethodInvocation != null && delegateMethodInvocation.getOriginClassName().equals(targetClass.getName())) {
-                    delegatesToTarget = true;
-                    //include delegate method in the analysis
-                    fieldInstructions.addAll(new SmartList<>(delegateMethod.getFieldInstructions()));
-                    localVariableInstructions.addAll(new SmartList<>(delegateMethod.getLocalVariableInstructions()));
-                    Map<AbstractVariable, ArrayList<MethodInvocationObject>> externalMethodInvocationsThroughFieldsMapDelegate = new LinkedHashMap<>();
-                    Map<AbstractVariable, ArrayList<MethodInvocationObject>> copyFromNonDistinctInvokedMethodsThroughFieldsDelegate = delegateMethod.getNonDistinctInvokedMethodsThroughFields();
-                    for (AbstractVariable key : copyFromNonDistinctInvokedMethodsThroughFieldsDelegate.keySet()) {
-                        ArrayList<MethodInvocationObject> value = new ArrayList<>(copyFromNonDistinctInvokedMethodsThroughFieldsDelegate.get(key));
-                        externalMethodInvocationsThroughFieldsMapDelegate.put(key, value);
-                    }
-                    for (AbstractVariable variable : externalMethodInvocationsThroughFieldsMapDelegate.keySet()) {
-                        if (externalMethodInvocationsThroughFieldsMap.containsKey(variable)) {
-                            externalMethodInvocationsThroughFieldsMap.get(variable).addAll(externalMethodInvocationsThroughFieldsMapDelegate.get(variable));
-                        } else {
-                            externalMethodInvocationsThroughFieldsMap.put(variable, externalMethodInvocationsThroughFieldsMapDelegate.get(variable));
-                        }
-                    }
-                    Map<AbstractVariable, ArrayList<MethodInvocationObject>> externalMethodInvocationsThroughParametersMapDelegate = new LinkedHashMap<>();
-                    Map<AbstractVariable, ArrayList<MethodInvocationObject>> copyFromNonDistinctInvokedMethodsThroughParametersDelegate = delegateMethod.getNonDistinctInvokedMethodsThroughParameters();
-                    for (AbstractVariable key : copyFromNonDistinctInvokedMethodsThroughParametersDelegate.keySet()) {
-                        ArrayList<MethodInvocationObject> value = new ArrayList<>(copyFromNonDistinctInvokedMethodsThroughParametersDelegate.get(key));
-                        externalMethodInvocationsThroughParametersMapDelegate.put(key, value);
-                    }
-                    for (AbstractVariable variable : externalMethodInvocationsThroughParametersMapDelegate.keySet()) {
-                        if (externalMethodInvocationsThroughParametersMap.containsKey(variable)) {
-                            externalMethodInvocationsThroughParametersMap.get(variable).addAll(externalMethodInvocationsThroughParametersMapDelegate.get(variable));
-                        } else {
-                            externalMethodInvocationsThroughParametersMap.put(variable, externalMethodInvocationsThroughParametersMapDelegate.get(variable));
-                        }
-                    }
-                    usedFieldsThroughThisReference.addAll(new SmartList<>(delegateMethod.getNonDistinctUsedFieldsThroughThisReference()));
-                    definedFieldsThroughThisReference.addAll(new SmartList<>(delegateMethod.getNonDistinctDefinedFieldsThroughThisReference()));
-                    usedFieldsThroughFields.addAll(new SmartList<>(delegateMethod.getNonDistinctUsedFieldsThroughFields()));
-                    usedFieldsThroughParameters.addAll(new SmartList<>(delegateMethod.getNonDistinctUsedFieldsThroughParameters()));
-                    definedFieldsThroughFields.addAll(new SmartList<>(delegateMethod.getNonDistinctDefinedFieldsThroughFields()));
-                    definedFieldsThroughParameters.addAll(new SmartList<>(delegateMethod.getNonDistinctDefinedFieldsThroughParameters()));
-                }
-            }
-            if (!delegatesToTarget) {
-                if (sourceMethodInvocationMap.containsKey(methodInvocation)) {
-                    sourceMethodInvocationMap.put(methodInvocation, sourceMethodInvocationMap.get(methodInvocation) + 1);
-                } else {
-                    sourceMethodInvocationMap.put(methodInvocation, 1);
-                }
-            }
-        }
-
-        processExternalMethodInvocations(externalMethodInvocationsThroughFieldsMap, fieldInstructions, localVariableInstructions, targetClass);
-        processExternalMethodInvocations(externalMethodInvocationsThroughParametersMap, fieldInstructions, localVariableInstructions, targetClass);
-
-        for (PlainVariable variable : usedFieldsThroughThisReference) {
-            FieldInstructionObject fieldInstruction = findFieldInstruction(variable, fieldInstructions);
-            if (fieldInstruction != null && !fieldInstruction.isStatic()) {
-                if (fieldInstruction.getOwnerClass().equals(targetClass.getPsiClass().getQualifiedName())) {
-                    //the used field in inherited from a superclass, which is the target
-                    if (targetFieldReadMap.containsKey(fieldInstruction)) {
-                        targetFieldReadMap.put(fieldInstruction, targetFieldReadMap.get(fieldInstruction) + 1);
-                    } else {
-                        targetFieldReadMap.put(fieldInstruction, 1);
-                    }
-                } else {
-                    if (sourceFieldReadMap.containsKey(fieldInstruction)) {
-                        sourceFieldReadMap.put(fieldInstruction, sourceFieldReadMap.get(fieldInstruction) + 1);
-                    } else {
-                        sourceFieldReadMap.put(fieldInstruction, 1);
-                    }
-                }
-            }
-        }
-
-        for (PlainVariable variable : definedFieldsThroughThisReference) {
-            FieldInstructionObject fieldInstruction = findFieldInstruction(variable, fieldInstructions);
-            if (fieldInstruction != null && fieldInstruction.getOwnerClass().equals(targetClass.getName())) {
-                //the defined field in inherited from a superclass, which is the target
-                if (targetFieldWriteMap.containsKey(fieldInstruction)) {
-                    targetFieldWriteMap.put(fieldInstruction, targetFieldWriteMap.get(fieldInstruction) + 1);
-                } else {
-                    targetFieldWriteMap.put(fieldInstruction, 1);
-                }
-            } else {
-                if (sourceFieldWriteMap.containsKey(fieldInstruction)) {
-                    sourceFieldWriteMap.put(fieldInstruction, sourceFieldWriteMap.get(fieldInstruction) + 1);
-                } else {
-                    sourceFieldWriteMap.put(fieldInstruction, 1);
-                }
-            }
-        }
-
-        handleUsedFields(usedFieldsThroughFields, fieldInstructions, targetClass);
-        handleUsedFields(usedFieldsThroughParameters, fieldInstructions, targetClass);
-
-        handleDefinedFields(definedFieldsThroughFields, fieldInstructions, localVariableInstructions, targetClass);
-        handleDefinedFields(definedFieldsThroughParameters, fieldInstructions, localVariableInstructions, targetClass);
+        classify(sourceClass, methodToBeMoved, targetClass);
     }
 
-    private void handleUsedFields(List<AbstractVariable> usedFields, List<FieldInstructionObject> fieldInstructions, ClassObject targetClass) {
-        for (AbstractVariable abstractVariable : usedFields) {
-            CompositeVariable compositeVariable = (CompositeVariable) abstractVariable;
-            AbstractVariable leftPart = compositeVariable.getLeftPart();
-            PlainVariable variable;
-            if (leftPart instanceof CompositeVariable) {
-                variable = ((CompositeVariable) leftPart).getFinalVariable();
-            } else {
-                variable = (PlainVariable) leftPart;
-            }
+    @Override
+    void addSourceMethodInvocation(MethodInvocationObject methodInvocation) {
+        increment(sourceMethodInvocationMap, methodInvocation);
+    }
 
-            PsiClass superClassTarget = targetClass.getPsiClass().getSuperClass();
-            if (variable.getType().equals(targetClass.getName()) ||
-                    superClassTarget != null && variable.getType().equals(superClassTarget.getQualifiedName())) {
-                FieldInstructionObject fieldInstruction = findFieldInstruction(compositeVariable.getFinalVariable(), fieldInstructions);
-                if (fieldInstruction != null && !fieldInstruction.isStatic()) {
-                    if (targetFieldReadMap.containsKey(fieldInstruction)) {
-                        targetFieldReadMap.put(fieldInstruction, targetFieldReadMap.get(fieldInstruction) + 1);
-                    } else {
-                        targetFieldReadMap.put(fieldInstruction, 1);
-                    }
-                }
-            }
-        }
+    @Override
+    void addTargetMethodInvocation(MethodInvocationObject methodInvocation) {
+        increment(targetMethodInvocationMap, methodInvocation);
     }
 
-    private void handleDefinedFields(List<AbstractVariable> definedFields, List<FieldInstructionObject> fieldInstructions,
-                                     List<LocalVariableInstructionObject> localVariableInstructions, ClassObject targetClass) {
-        for (AbstractVariable abstractVariable : definedFields) {
-            CompositeVariable compositeVariable = (CompositeVariable) abstractVariable;
-            AbstractVariable leftPart = compositeVariable.getLeftPart();
-            PlainVariable variable;
-            if (leftPart instanceof CompositeVariable) {
-                variable = ((CompositeVariable) leftPart).getFinalVariable();
-            } else {
-                variable = (PlainVariable) leftPart;
-            }
-            PsiElement variableTypeBinding = null;
-            if (variable.isField()) {
-                FieldInstructionObject fieldInstruction = findFieldInstruction(variable, fieldInstructions);
-                if (fieldInstruction != null)
-                    variableTypeBinding = fieldInstruction.getElement();
-            } else if (variable.isParameter()) {
-                LocalVariableInstructionObject localVariableInstruction = findLocalVariableInstruction(variable, localVariableInstructions);
-                if (localVariableInstruction != null)
-                    variableTypeBinding = localVariableInstruction.getReference();
-            }
-            PsiClass targetClassBinding = (PsiClass) targetClass.getAbstractTypeDeclaration();
-            if (variable.getType().equals(targetClass.getName()) ||
-                    (variableTypeBinding != null && targetClassBinding.equals(variableTypeBinding.getOriginalElement()))) {
-                FieldInstructionObject fieldInstruction = findFieldInstruction(compositeVariable.getFinalVariable(), fieldInstructions);
-                if (targetFieldWriteMap.containsKey(fieldInstruction)) {
-                    targetFieldWriteMap.put(fieldInstruction, targetFieldWriteMap.get(fieldInstruction) + 1);
-                } else {
-                    targetFieldWriteMap.put(fieldInstruction, 1);
-                }
-            }
-        }
+    @Override
+    void addSourceFieldRead(FieldInstructionObject fieldInstruction) {
+        increment(sourceFieldReadMap, fieldInstruction);
     }
 
-    private FieldInstructionObject findFieldInstruction(PlainVariable variable, List<FieldInstructionObject> fieldInstructions) {
-        for (FieldInstructionObject fieldInstruction : fieldInstructions) {
-            PsiElement psiElement = fieldInstruction.getElement();
-            if (psiElement instanceof PsiField) {
-                PsiField psiField = (PsiField) psiElement;
-                if (psiField.getName().equals(variable.getName()))
-                    return fieldInstruction;
-            }
-        }
-        return null;
+    @Override
+    void addSourceFieldWrite(FieldInstructionObject fieldInstruction) {
+        increment(sourceFieldWriteMap, fieldInstruction);
     }
 
-    private LocalVariableInstructionObject findLocalVariableInstruction(PlainVariable variable, List<LocalVariableInstructionObject> localVariableInstructions) {
-        for (LocalVariableInstructionObject localVariableInstruction : localVariableInstructions) {
-            PsiElement resolvedElement = localVariableInstruction.getReference().resolve();
-            if (variable.getOrigin().equals(resolvedElement)) {
-                return localVariableInstruction;
-            }
-        }
-        return null;
+    @Override
+    void addTargetFieldRead(FieldInstructionObject fieldInstruction) {
+        increment(targetFieldReadMap, fieldInstruction);
     }
 
-    private void processExternalMethodInvocations(Map<AbstractVariable, ArrayList<MethodInvocationObject>> externalMethodInvocationMap,
-                                                  List<FieldInstructionObject> fieldInstructions, List<LocalVariableInstructionObject> localVariableInstructions, ClassObject targetClassObject) {
-        for (AbstractVariable abstractVariable : externalMethodInvocationMap.keySet()) {
-            PlainVariable variable;
-            if (abstractVariable instanceof CompositeVariable) {
-                variable = ((CompositeVariable) abstractVariable).getFinalVariable();
-            } else {
-                variable = (PlainVariable) abstractVariable;
-            }
-            PsiElement variableType = null;
-            if (variable.isField()) {
-                FieldInstructionObject fieldInstruction = findFieldInstruction(variable, fieldInstructions);
-                if (fieldInstruction != null)
-                    variableType = fieldInstruction.getElement();
-            } else if (variable.isParameter()) {
-                LocalVariableInstructionObject localVariableInstruction = findLocalVariableInstruction(variable, localVariableInstructions);
-                if (localVariableInstruction != null)
-                    variableType = localVariableInstruction.getReference();
-            }
-            PsiElement targetPsiClass = targetClassObject.getAbstractTypeDeclaration();
-            if (variable.getType().equals(targetClassObject.getPsiClass().getQualifiedName())) {
-                List<MethodInvocationObject> externalMethodInvocations = externalMethodInvocationMap.get(abstractVariable);
-                handleExternalMethodInvocation(externalMethodInvocations);
-            } else if (variableType instanceof PsiClass) {
-                PsiClass psiClass = ((PsiClass) targetPsiClass);
-                PsiClass targetClass = (PsiClass) targetPsiClass;
-                if (targetClass.getQualifiedName() != null && psiClass.getSuperClass() != null
-                        && targetClass.getQualifiedName().equals(psiClass.getSuperClass().getQualifiedName())) {
-                    List<MethodInvocationObject> externalMethodInvocations = externalMethodInvocationMap.get(abstractVariable);
-                    handleExternalMethodInvocation(externalMethodInvocations);
-                }
-            }
-        }
+    @Override
+    void addTargetFieldWrite(FieldInstructionObject fieldInstruction) {
+        increment(targetFieldWriteMap, fieldInstruction);
     }
 
-    private void handleExternalMethodInvocation(List<MethodInvocationObject> externalMethodInvocations) {
-        for (MethodInvocationObject methodInvocation : externalMethodInvocations) {
-            if (targetMethodInvocationMap.containsKey(methodInvocation)) {
-                targetMethodInvocationMap.put(methodInvocation, targetMethodInvocationMap.get(methodInvocation) + 1);
-            } else {
-                targetMethodInvocationMap.put(methodInvocation, 1);
-            }
+    private static <T> void increment(Map<T, Integer> map, T key) {
+        if (map.containsKey(key)) {
+            map.put(key, map.get(key) + 1);
+        } else {
+            map.put(key, 1);
         }
     }
 
@@ -0,0 +1,90 @@
+package org.jetbrains.research.intellijdeodorant.core;
+
+import org.jetbrains.research.intellijdeodorant.core.ast.*;
+import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.cfg.PlainVariable;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.jetbrains.research.intellijdeodorant.core.GodClassVisualizationData.findFieldInstruction;
+import static org.jetbrains.research.intellijdeodorant.core.GodClassVisualizationData.isAccessToExtractedField;
+import static org.jetbrains.research.intellijdeodorant.core.GodClassVisualizationData.isInvocationToExtractedMethod;
+
+/**
+ * Distinct source class and extracted class members the extracted methods depend on, as reported by
+ * {@link GodClassVisualizationData}, computed from the distinct accesses of the methods without counting occurrences.
+ */
+public class GodClassDependencyCounts {
+    private final Set<MethodInvocationObject> sourceMethodInvocations = new LinkedHashSet<>();
+    private final Set<MethodInvocationObject> extractedMethodInvocations = new LinkedHashSet<>();
+    private final Set<FieldInstructionObject> sourceFieldInstructions = new LinkedHashSet<>();
+    private final Set<FieldInstructionObject> extractedFieldInstructions = new LinkedHashSet<>();
+    private final Set<FieldObject> extractedFields;
+
+    public GodClassDependencyCounts(ClassObject sourceClass, Set<MethodObject> extractedMethods, Set<FieldObject> extractedFields) {
+        this.extractedFields = extractedFields;
+        for (MethodObject method : extractedMethods) {
+            for (MethodInvocationObject invocation : method.getInvokedMethodsThroughThisReference()) {
+                if (isInvocationToExtractedMethod(invocation, extractedMethods)) {
+                    extractedMethodInvocations.add(invocation);
+                } else if (!isAccessorOfExtractedField(sourceClass, invocation)) {
+                    sourceMethodInvocations.add(invocation);
+                }
+            }
+            List<FieldInstructionObject> fieldInstructions = method.getFieldInstructions();
+            addFieldAccesses(method.getUsedFieldsThroughThisReference(), fieldInstructions);
+            addFieldAccesses(method.getDefinedFieldsThroughThisReference(), fieldInstructions);
+        }
+    }
+
+    //getter and setter calls of extracted fields become accesses of the fields in the extracted class
+    private boolean isAccessorOfExtractedField(ClassObject sourceClass, MethodInvocationObject invocation) {
+        boolean accessorOfExtractedField = false;
+        MethodObject methodDeclaration = sourceClass.getMethod(invocation);
+        if (methodDeclaration != null) {
+            FieldInstructionObject getterFieldInstruction = methodDeclaration.isGetter();
+            if (getterFieldInstruction != null && isAccessToExtractedField(getterFieldInstruction, extractedFields)) {
+                extractedFieldInstructions.add(getterFieldInstruction);
+                accessorOfExtractedField = true;
+            }
+            FieldInstructionObject setterFieldInstruction = methodDeclaration.isSetter();
+            if (setterFieldInstruction != null && isAccessToExtractedField(setterFieldInstruction, extractedFields)) {
+                extractedFieldInstructions.add(setterFieldInstruction);
+                accessorOfExtractedField = true;
+            }
+        }
+        return accessorOfExtractedField;
+    }
+
+    private void addFieldAccesses(Set<PlainVariable> fieldAccesses, List<FieldInstructionObject> fieldInstructions) {
+        for (PlainVariable fieldAccess : fieldAccesses) {
+            FieldInstructionObject fieldInstruction = findFieldInstruction(fieldAccess, fieldInstructions);
+            //exclude accesses to static fields
+            if (!fieldInstruction.isStatic()) {
+                if (isAccessToExtractedField(fieldInstruction, extractedFields)) {
+                    extractedFieldInstructions.add(fieldInstruction);
+                } else {
+                    sourceFieldInstructions.add(fieldInstruction);
+                }
+            }
+        }
+    }
+
+    public int getDistinctSourceDependencies() {
+        return sourceFieldInstructions.size() + sourceMethodInvocations.size();
+    }
+
+    public int getDistinctTargetDependencies() {
+        return extractedFieldInstructions.size() + extractedMethodInvocations.size();
+    }
+
+    public boolean containsNonAccessedFieldInExtractedClass() {
+        for (FieldObject field : extractedFields) {
+            if (!extractedFieldInstructions.contains(field.generateFieldInstruction())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
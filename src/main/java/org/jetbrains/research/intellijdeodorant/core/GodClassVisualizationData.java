@@ -136,7 +136,7 @@ public class GodClassVisualizationData implements VisualizationData {
         }
     }
 
-    private boolean isInvocationToExtractedMethod(MethodInvocationObject invocation, Set<MethodObject> extractedMethods) {
+    static boolean isInvocationToExtractedMethod(MethodInvocationObject invocation, Set<MethodObject> extractedMethods) {
         for (MethodObject method : extractedMethods) {
             if (method.equals(invocation))
                 return true;
@@ -144,7 +144,7 @@ public class GodClassVisualizationData implements VisualizationData {
         return false;
     }
 
-    private boolean isAccessToExtractedField(FieldInstructionObject instruction, Set<FieldObject> extractedFields) {
+    static boolean isAccessToExtractedField(FieldInstructionObject instruction, Set<FieldObject> extractedFields) {
         for (FieldObject field : extractedFields) {
             if (field.equals(instruction))
                 return true;
@@ -152,7 +152,7 @@ public class GodClassVisualizationData implements VisualizationData {
         return false;
     }
 
-    private FieldInstructionObject findFieldInstruction(PlainVariable variable, List<FieldInstructionObject> fieldInstructions) {
+    static FieldInstructionObject findFieldInstruction(PlainVariable variable, List<FieldInstructionObject> fieldInstructions) {
         for (FieldInstructionObject fieldInstruction : fieldInstructions) {
             PsiElement psiElement = fieldInstruction.getElement();
             if (psiElement instanceof PsiField) {
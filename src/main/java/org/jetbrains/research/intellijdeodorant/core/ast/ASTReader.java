@@ -1,33 +1,142 @@
 package org.jetbrains.research.intellijdeodorant.core.ast;
 
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.psi.*;
+import com.intellij.psi.util.PsiModificationTracker;
 
 import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.MethodBodyObject;
 import org.jetbrains.research.intellijdeodorant.core.distance.ProjectInfo;
 import org.jetbrains.research.intellijdeodorant.IntelliJDeodorantBundle;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ASTReader {
-    private static SystemObject systemObject;
+    private SystemObject systemObject;
+    private final Map<PsiFile, Long> fileModificationStamps = new HashMap<>();
+    private final Map<PsiClass, ClassObject> classObjects = new HashMap<>();
+    private long structureModificationCount;
 
     public ASTReader(ProjectInfo project, ProgressIndicator indicator) {
         indicator.setText(IntelliJDeodorantBundle.message("feature.envy.parsing.indicator"));
         indicator.setFraction(0.0);
+        build(project, indicator);
+        indicator.setFraction(1.0);
+    }
+
+    /**
+     * Brings the model up to date with the classes of the given project.
+     * The model of a class refers to the declarations of other classes it was resolved against,
+     * such as the origin classes of invoked methods and the types of accessed fields.
+     * If a change outside of code blocks happened since the previous build, any of those declarations may have changed,
+     * so the whole model is built again. Otherwise only classes declared in files modified since the previous build,
+     * or not analysed before, are parsed again, and getters, setters, collection adders and delegates of the other
+     * classes are copied from the previous model.
+     */
+    public void update(ProjectInfo project, ProgressIndicator indicator) {
+        indicator.setText(IntelliJDeodorantBundle.message("feature.envy.parsing.indicator"));
+        indicator.setFraction(0.0);
+        if (getStructureModificationCount(project) != structureModificationCount) {
+            classObjects.clear();
+            fileModificationStamps.clear();
+            build(project, indicator);
+        } else {
+            updateModifiedFiles(project, indicator);
+        }
+        indicator.setFraction(1.0);
+    }
+
+    private void updateModifiedFiles(ProjectInfo project, ProgressIndicator indicator) {
+        SystemObject previousSystemObject = systemObject;
+        Map<PsiClass, ClassObject> previousClassObjects = new HashMap<>(classObjects);
+        Map<PsiFile, Long> previousFileModificationStamps = new HashMap<>(fileModificationStamps);
+        classObjects.clear();
+        fileModificationStamps.clear();
+
+        List<PsiClass> classes = project.getClasses();
+        List<PsiClass> changedClasses = new ArrayList<>();
+        Set<String> unchangedClassNames = new HashSet<>();
+        for (PsiClass psiClass : classes) {
+            PsiFile psiFile = psiClass.getContainingFile();
+            Long previousStamp = previousFileModificationStamps.get(psiFile);
+            ClassObject previousClassObject = previousClassObjects.get(psiClass);
+            if (previousClassObject != null && previousStamp != null && previousStamp == psiFile.getModificationStamp()) {
+                unchangedClassNames.add(previousClassObject.getName());
+            } else {
+                changedClasses.add(psiClass);
+            }
+        }
+
+        systemObject = new SystemObject();
+        systemObject.addAccessorsOf(previousSystemObject, unchangedClassNames);
+        Map<PsiClass, ClassObject> processedClassObjects = processTypeDeclarations(changedClasses, indicator);
+        for (PsiClass psiClass : classes) {
+            ClassObject classObject = processedClassObjects.get(psiClass);
+            if (classObject == null) {
+                classObject = previousClassObjects.get(psiClass);
+            }
+            systemObject.addClass(classObject);
+            rememberClass(psiClass, classObject);
+        }
+    }
+
+    private void build(ProjectInfo project, ProgressIndicator indicator) {
+        structureModificationCount = getStructureModificationCount(project);
         systemObject = new SystemObject();
         List<PsiClass> classes = project.getClasses();
-        int processedClasses = 0;
-        int classesCount = classes.size();
+        Map<PsiClass, ClassObject> processedClassObjects = processTypeDeclarations(classes, indicator);
         for (PsiClass psiClass : classes) {
-            systemObject.addClass(processTypeDeclaration(psiClass));
-            processedClasses += 1;
-            indicator.setFraction((double) processedClasses / classesCount);
+            ClassObject classObject = processedClassObjects.get(psiClass);
+            systemObject.addClass(classObject);
+            rememberClass(psiClass, classObject);
+        }
+    }
+
+    private static long getStructureModificationCount(ProjectInfo project) {
+        return PsiModificationTracker.SERVICE.getInstance(project.getProject()).getOutOfCodeBlockModificationCount();
+    }
+
+    /**
+     * Processes the given classes concurrently. Each worker collects getters, setters, collection adders and delegates
+     * into its own partial model, and the partial models are merged into {@code systemObject} at the end.
+     */
+    private Map<PsiClass, ClassObject> processTypeDeclarations(List<PsiClass> classes, ProgressIndicator indicator) {
+        Map<PsiClass, ClassObject> processedClassObjects = new ConcurrentHashMap<>();
+        Queue<SystemObject> partialSystemObjects = new ConcurrentLinkedQueue<>();
+        ThreadLocal<SystemObject> partialSystemObject = ThreadLocal.withInitial(() -> {
+            SystemObject partial = new SystemObject();
+            partialSystemObjects.add(partial);
+            return partial;
+        });
+        AtomicInteger processedClasses = new AtomicInteger();
+        int classesCount = classes.size();
+        boolean completed = JobLauncher.getInstance().invokeConcurrentlyUnderProgress(classes, indicator, psiClass -> {
+            processedClassObjects.put(psiClass, processTypeDeclaration(psiClass, partialSystemObject.get()));
+            indicator.setFraction((double) processedClasses.incrementAndGet() / classesCount);
+            return true;
+        });
+        if (!completed) {
+            throw new ProcessCanceledException();
+        }
+        for (SystemObject partial : partialSystemObjects) {
+            systemObject.addAccessorsOf(partial);
+        }
+        return processedClassObjects;
+    }
+
+    private void rememberClass(PsiClass psiClass, ClassObject classObject) {
+        classObjects.put(psiClass, classObject);
+        PsiFile psiFile = psiClass.getContainingFile();
+        if (psiFile != null) {
+            fileModificationStamps.put(psiFile, psiFile.getModificationStamp());
         }
-        indicator.setFraction(1.0);
     }
 
-    private ClassObject processTypeDeclaration(PsiClass psiClass) {
+    private ClassObject processTypeDeclaration(PsiClass psiClass, SystemObject partialSystemObject) {
         final ClassObject classObject = new ClassObject(psiClass);
         classObject.setName(psiClass.getQualifiedName());
         if (psiClass.isInterface()) {
@@ -66,7 +175,7 @@ public class ASTReader {
 
         PsiMethod[] methodDeclarations = psiClass.getMethods();
         for (PsiMethod methodDeclaration : methodDeclarations) {
-            processMethodDeclaration(classObject, methodDeclaration);
+            processMethodDeclaration(classObject, methodDeclaration, partialSystemObject);
         }
         return classObject;
     }
@@ -92,7 +201,7 @@ public class ASTReader {
 
     }
 
-    private void processMethodDeclaration(final ClassObject classObject, PsiMethod methodDeclaration) {
+    private void processMethodDeclaration(final ClassObject classObject, PsiMethod methodDeclaration, SystemObject partialSystemObject) {
         String methodName = methodDeclaration.getName();
         final ConstructorObject constructorObject = new ConstructorObject();
         constructorObject.setMethodDeclaration(methodDeclaration);
@@ -157,20 +266,20 @@ public class ASTReader {
             classObject.addMethod(methodObject);
             FieldInstructionObject fieldInstruction = methodObject.isGetter();
             if (fieldInstruction != null)
-                systemObject.addGetter(methodObject.generateMethodInvocation(), fieldInstruction);
+                partialSystemObject.addGetter(methodObject.generateMethodInvocation(), fieldInstruction);
             fieldInstruction = methodObject.isSetter();
             if (fieldInstruction != null)
-                systemObject.addSetter(methodObject.generateMethodInvocation(), fieldInstruction);
+                partialSystemObject.addSetter(methodObject.generateMethodInvocation(), fieldInstruction);
             fieldInstruction = methodObject.isCollectionAdder();
             if (fieldInstruction != null)
-                systemObject.addCollectionAdder(methodObject.generateMethodInvocation(), fieldInstruction);
+                partialSystemObject.addCollectionAdder(methodObject.generateMethodInvocation(), fieldInstruction);
             MethodInvocationObject methodInvocation = methodObject.isDelegate();
             if (methodInvocation != null)
-                systemObject.addDelegate(methodObject.generateMethodInvocation(), methodInvocation);
+                partialSystemObject.addDelegate(methodObject.generateMethodInvocation(), methodInvocation);
         }
     }
 
-    public static SystemObject getSystemObject() {
+    public SystemObject getSystemObject() {
         return systemObject;
     }
 
@@ -0,0 +1,62 @@
+package org.jetbrains.research.intellijdeodorant.core.ast;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.cfg.PDGSliceCache;
+import org.jetbrains.research.intellijdeodorant.core.distance.ProjectInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Project-level holder of the analysed {@link SystemObject}.
+ * The model is built once and shared by all detectors until the PSI of the project changes
+ * or a different set of classes is requested. In that case only the classes of the modified files are parsed again,
+ * unless a declaration changed, which makes the whole model to be built again.
+ * Detectors must treat the returned model as read-only.
+ * The service also owns the cache of the per-method slices used by Extract Method detection.
+ */
+public class AnalysisModelService {
+    private final Project project;
+    private long modificationCount = -1;
+    private List<PsiClass> analysedClasses = new ArrayList<>();
+    private ASTReader astReader;
+    private SystemObject systemObject;
+    private final PDGSliceCache sliceCache = new PDGSliceCache();
+
+    public AnalysisModelService(@NotNull Project project) {
+        this.project = project;
+    }
+
+    public static AnalysisModelService getInstance(@NotNull Project project) {
+        return ServiceManager.getService(project, AnalysisModelService.class);
+    }
+
+    /**
+     * Returns the model of the classes collected by {@code projectInfo}, parsing only the classes
+     * that are missing from the cached model or were modified since it was built.
+     */
+    public synchronized SystemObject getSystemObject(@NotNull ProjectInfo projectInfo, @NotNull ProgressIndicator indicator) {
+        long currentModificationCount = PsiModificationTracker.SERVICE.getInstance(project).getModificationCount();
+        List<PsiClass> classes = projectInfo.getClasses();
+        if (astReader == null) {
+            astReader = new ASTReader(projectInfo, indicator);
+        } else if (currentModificationCount != modificationCount || !analysedClasses.equals(classes)) {
+            astReader.update(projectInfo, indicator);
+        } else {
+            return systemObject;
+        }
+        systemObject = astReader.getSystemObject();
+        modificationCount = currentModificationCount;
+        analysedClasses = new ArrayList<>(classes);
+        return systemObject;
+    }
+
+    public PDGSliceCache getSliceCache() {
+        return sliceCache;
+    }
+}
@@ -13,6 +13,7 @@ public abstract class ClassDeclarationObject {
     String name;
     final List<MethodObject> methodList;
     final List<FieldObject> fieldList;
+    private volatile InstructionIndex<MethodObject> instructionIndex;
 
     ClassDeclarationObject() {
         this.methodList = new ArrayList<>();
@@ -25,6 +26,7 @@ public abstract class ClassDeclarationObject {
 
     public void addMethod(MethodObject method) {
         methodList.add(method);
+        instructionIndex = null;
     }
 
     public void addField(FieldObject f) {
@@ -80,41 +82,37 @@ public abstract class ClassDeclarationObject {
     }
 
     public boolean containsMethodInvocation(MethodInvocationObject methodInvocation) {
-        for (MethodObject method : methodList) {
-            if (method.containsMethodInvocation(methodInvocation))
-                return true;
-        }
-        return false;
+        return getInstructionIndex().contains(methodInvocation, null);
     }
 
     public boolean containsFieldInstruction(FieldInstructionObject fieldInstruction) {
-        for (MethodObject method : methodList) {
-            if (method.containsFieldInstruction(fieldInstruction))
-                return true;
-        }
-        return false;
+        return getInstructionIndex().contains(fieldInstruction, null);
     }
 
     public boolean containsMethodInvocation(MethodInvocationObject methodInvocation, MethodObject excludedMethod) {
-        for (MethodObject method : methodList) {
-            if (!method.equals(excludedMethod) && method.containsMethodInvocation(methodInvocation))
-                return true;
-        }
-        return false;
+        return getInstructionIndex().contains(methodInvocation, excludedMethod);
     }
 
     public boolean containsSuperMethodInvocation(SuperMethodInvocationObject superMethodInvocation) {
-        for (MethodObject method : methodList) {
-            if (method.containsSuperMethodInvocation(superMethodInvocation))
-                return true;
+        return getInstructionIndex().contains(superMethodInvocation, null);
+    }
+
+    private InstructionIndex<MethodObject> getInstructionIndex() {
+        InstructionIndex<MethodObject> index = instructionIndex;
+        if (index == null) {
+            index = new InstructionIndex<>();
+            for (MethodObject method : methodList) {
+                index.add(method, method);
+            }
+            instructionIndex = index;
         }
-        return false;
+        return index;
     }
 
-    public Set<FieldObject> getFieldsAccessedInsideMethod(AbstractMethodDeclaration method) {
+    public Set<FieldObject> getFieldsAccessedInsideMethod(AbstractMethodDeclaration method, SystemObject systemObject) {
         Set<FieldObject> fields = new LinkedHashSet<>();
         for (FieldInstructionObject fieldInstruction : method.getFieldInstructions()) {
-            FieldObject accessedFieldFromThisClass = findField(fieldInstruction);
+            FieldObject accessedFieldFromThisClass = findField(fieldInstruction, systemObject);
             if (accessedFieldFromThisClass != null) {
                 fields.add(accessedFieldFromThisClass);
             }
@@ -124,7 +122,7 @@ public abstract class ClassDeclarationObject {
             for (TryStatementObject tryStatement : tryStatements) {
                 for (CatchClauseObject catchClause : tryStatement.getCatchClauses()) {
                     for (FieldInstructionObject fieldInstruction : catchClause.getBody().getFieldInstructions()) {
-                        FieldObject accessedFieldFromThisClass = findField(fieldInstruction);
+                        FieldObject accessedFieldFromThisClass = findField(fieldInstruction, systemObject);
                         if (accessedFieldFromThisClass != null) {
                             fields.add(accessedFieldFromThisClass);
                         }
@@ -132,7 +130,7 @@ public abstract class ClassDeclarationObject {
                 }
                 if (tryStatement.getFinallyClause() != null) {
                     for (FieldInstructionObject fieldInstruction : tryStatement.getFinallyClause().getFieldInstructions()) {
-                        FieldObject accessedFieldFromThisClass = findField(fieldInstruction);
+                        FieldObject accessedFieldFromThisClass = findField(fieldInstruction, systemObject);
                         if (accessedFieldFromThisClass != null) {
                             fields.add(accessedFieldFromThisClass);
                         }
@@ -152,16 +150,16 @@ public abstract class ClassDeclarationObject {
         return null;
     }
 
-    FieldObject findField(FieldInstructionObject fieldInstruction) {
+    FieldObject findField(FieldInstructionObject fieldInstruction, SystemObject systemObject) {
         FieldObject field = getField(fieldInstruction);
         if (field != null) {
             return field;
         } else {
             TypeObject superclassType = getSuperclass();
             if (superclassType != null) {
-                ClassObject superclassObject = ASTReader.getSystemObject().getClassObject(superclassType.toString());
+                ClassObject superclassObject = systemObject.getClassObject(superclassType.toString());
                 if (superclassObject != null) {
-                    return superclassObject.findField(fieldInstruction);
+                    return superclassObject.findField(fieldInstruction, systemObject);
                 }
             }
         }
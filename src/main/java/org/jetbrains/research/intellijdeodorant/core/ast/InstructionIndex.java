@@ -0,0 +1,60 @@
+package org.jetbrains.research.intellijdeodorant.core.ast;
+
+import java.util.*;
+
+/**
+ * Reverse index from the method invocations and field instructions found in method bodies
+ * to the owners (methods or classes) of these bodies.
+ */
+class InstructionIndex<O> {
+    private final Map<MethodInvocationObject, List<O>> methodInvocationOwners = new HashMap<>();
+    private final Map<SuperMethodInvocationObject, List<O>> superMethodInvocationOwners = new HashMap<>();
+    private final Map<FieldInstructionObject, List<O>> fieldInstructionOwners = new HashMap<>();
+
+    void add(AbstractMethodDeclaration method, O owner) {
+        for (MethodInvocationObject methodInvocation : method.getMethodInvocations()) {
+            addOwner(methodInvocationOwners, methodInvocation, owner);
+        }
+        for (SuperMethodInvocationObject superMethodInvocation : method.getSuperMethodInvocations()) {
+            addOwner(superMethodInvocationOwners, superMethodInvocation, owner);
+        }
+        for (FieldInstructionObject fieldInstruction : method.getFieldInstructions()) {
+            addOwner(fieldInstructionOwners, fieldInstruction, owner);
+        }
+    }
+
+    private static <K, O> void addOwner(Map<K, List<O>> owners, K instruction, O owner) {
+        List<O> instructionOwners = owners.computeIfAbsent(instruction, key -> new ArrayList<>(1));
+        // the instructions of a method are added together, so a repeated owner can only be the last one
+        if (instructionOwners.isEmpty() || instructionOwners.get(instructionOwners.size() - 1) != owner) {
+            instructionOwners.add(owner);
+        }
+    }
+
+    boolean contains(MethodInvocationObject methodInvocation, O excludedOwner) {
+        return containsOwnerOtherThan(methodInvocationOwners.get(methodInvocation), excludedOwner);
+    }
+
+    boolean contains(SuperMethodInvocationObject superMethodInvocation, O excludedOwner) {
+        return containsOwnerOtherThan(superMethodInvocationOwners.get(superMethodInvocation), excludedOwner);
+    }
+
+    boolean contains(FieldInstructionObject fieldInstruction, O excludedOwner) {
+        return containsOwnerOtherThan(fieldInstructionOwners.get(fieldInstruction), excludedOwner);
+    }
+
+    private static <O> boolean containsOwnerOtherThan(List<O> owners, O excludedOwner) {
+        if (owners == null) {
+            return false;
+        }
+        if (excludedOwner == null) {
+            return !owners.isEmpty();
+        }
+        for (O owner : owners) {
+            if (!excludedOwner.equals(owner)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -16,6 +16,7 @@ import org.jetbrains.research.intellijdeodorant.ide.refactoring.typeStateCheckin
 
 import javax.swing.tree.DefaultMutableTreeNode;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public class SystemObject {
@@ -27,6 +28,8 @@ public class SystemObject {
     private final Map<MethodInvocationObject, FieldInstructionObject> setterMap;
     private final Map<MethodInvocationObject, FieldInstructionObject> collectionAdderMap;
     private final Map<MethodInvocationObject, MethodInvocationObject> delegateMap;
+    private volatile InstructionIndex<ClassObject> instructionIndex;
+    private final Map<PsiMethod, Boolean> overridesMethod;
 
     public SystemObject() {
         this.classList = new ArrayList<>();
@@ -35,11 +38,13 @@ public class SystemObject {
         this.setterMap = new LinkedHashMap<>();
         this.collectionAdderMap = new LinkedHashMap<>();
         this.delegateMap = new LinkedHashMap<>();
+        this.overridesMethod = new ConcurrentHashMap<>();
     }
 
     public void addClass(ClassObject c) {
         classNameMap.put(c.getName(), classList.size());
         classList.add(c);
+        instructionIndex = null;
     }
 
     public void addGetter(MethodInvocationObject methodInvocation, FieldInstructionObject fieldInstruction) {
@@ -58,6 +63,35 @@ public class SystemObject {
         delegateMap.put(methodInvocation, delegation);
     }
 
+    /**
+     * Copies all getters, setters, collection adders and delegates of another model.
+     */
+    public void addAccessorsOf(SystemObject systemObject) {
+        getterMap.putAll(systemObject.getterMap);
+        setterMap.putAll(systemObject.setterMap);
+        collectionAdderMap.putAll(systemObject.collectionAdderMap);
+        delegateMap.putAll(systemObject.delegateMap);
+    }
+
+    /**
+     * Copies getters, setters, collection adders and delegates declared in the given classes of another model.
+     */
+    public void addAccessorsOf(SystemObject systemObject, Set<String> classNames) {
+        copyEntriesOf(systemObject.getterMap, getterMap, classNames);
+        copyEntriesOf(systemObject.setterMap, setterMap, classNames);
+        copyEntriesOf(systemObject.collectionAdderMap, collectionAdderMap, classNames);
+        copyEntriesOf(systemObject.delegateMap, delegateMap, classNames);
+    }
+
+    private static <V> void copyEntriesOf(Map<MethodInvocationObject, V> source, Map<MethodInvocationObject, V> destination,
+                                          Set<String> classNames) {
+        for (Map.Entry<MethodInvocationObject, V> entry : source.entrySet()) {
+            if (classNames.contains(entry.getKey().getOriginClassName())) {
+                destination.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
     public FieldInstructionObject containsGetter(MethodInvocationObject methodInvocation) {
         return getterMap.get(methodInvocation);
     }
@@ -89,27 +123,42 @@ public class SystemObject {
     }
 
     public boolean containsMethodInvocation(MethodInvocationObject methodInvocation, ClassObject excludedClass) {
-        for (ClassObject classObject : classList) {
-            if (!excludedClass.equals(classObject) && classObject.containsMethodInvocation(methodInvocation))
-                return true;
-        }
-        return false;
+        return getInstructionIndex().contains(methodInvocation, excludedClass);
     }
 
     public boolean containsFieldInstruction(FieldInstructionObject fieldInstruction, ClassObject excludedClass) {
-        for (ClassObject classObject : classList) {
-            if (!excludedClass.equals(classObject) && classObject.containsFieldInstruction(fieldInstruction))
-                return true;
-        }
-        return false;
+        return getInstructionIndex().contains(fieldInstruction, excludedClass);
     }
 
     public boolean containsSuperMethodInvocation(SuperMethodInvocationObject superMethodInvocation) {
-        for (ClassObject classObject : classList) {
-            if (classObject.containsSuperMethodInvocation(superMethodInvocation))
-                return true;
+        return getInstructionIndex().contains(superMethodInvocation, null);
+    }
+
+    /**
+     * Returns whether {@code method} overrides a method of a superclass or an interface.
+     * The super methods are resolved once per method, the first time a candidate asks for it.
+     */
+    public boolean overridesMethod(MethodObject method) {
+        return overridesMethod.computeIfAbsent(method.getMethodDeclaration(), methodDeclaration -> method.overridesMethod());
+    }
+
+    private InstructionIndex<ClassObject> getInstructionIndex() {
+        InstructionIndex<ClassObject> index = instructionIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = instructionIndex;
+                if (index == null) {
+                    index = new InstructionIndex<>();
+                    for (ClassObject classObject : classList) {
+                        for (MethodObject method : classObject.getMethodList()) {
+                            index.add(method, classObject);
+                        }
+                    }
+                    instructionIndex = index;
+                }
+            }
         }
-        return false;
+        return index;
     }
 
     public ClassObject getClassObject(String className) {
@@ -137,15 +186,7 @@ public class SystemObject {
     }
 
     public List<ClassObject> getClassObjects() {
-        return classList;
-    }
-
-    public List<String> getClassNames() {
-        List<String> names = new ArrayList<>();
-        for (int i = 0; i < classList.size(); i++) {
-            names.add(getClassObject(i).getName());
-        }
-        return names;
+        return Collections.unmodifiableList(classList);
     }
 
     public List<TypeCheckEliminationGroup> generateTypeCheckEliminations(Set<ClassObject> classObjectsToBeExamined, ProgressIndicator indicator) {
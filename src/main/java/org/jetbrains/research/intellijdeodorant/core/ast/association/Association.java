@@ -50,6 +50,15 @@ public class Association {
         return false;
     }
 
+    public int hashCode() {
+        int result = 17;
+        result = 37 * result + from.hashCode();
+        result = 37 * result + to.hashCode();
+        result = 37 * result + fieldObject.hashCode();
+        result = 37 * result + (container ? 1 : 0);
+        return result;
+    }
+
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append(from).append(" -->");
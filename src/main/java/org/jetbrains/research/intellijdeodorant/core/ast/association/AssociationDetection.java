@@ -1,22 +1,30 @@
 package org.jetbrains.research.intellijdeodorant.core.ast.association;
 
+import com.intellij.psi.*;
 import org.jetbrains.research.intellijdeodorant.core.ast.ClassObject;
 import org.jetbrains.research.intellijdeodorant.core.ast.FieldInstructionObject;
 import org.jetbrains.research.intellijdeodorant.core.ast.FieldObject;
 import org.jetbrains.research.intellijdeodorant.core.ast.MethodObject;
 import org.jetbrains.research.intellijdeodorant.core.ast.SystemObject;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.ListIterator;
+import java.util.*;
 
+/**
+ * Detects the associations between the classes of a system, that is the fields whose type,
+ * array component type or collection element type is a class of the system.
+ * Associations are indexed by field and by origin class.
+ */
 public class AssociationDetection {
-    private final List<Association> associationList;
-    private final List<String> acceptableOriginClassNames;
+    private final Set<Association> associations;
+    private final Set<FieldObject> associatedFields;
+    private final Map<String, List<Association>> associationsByOrigin;
+    private final Set<String> acceptableOriginClassNames;
 
     public AssociationDetection(SystemObject system) {
-        this.associationList = new ArrayList<>();
-        acceptableOriginClassNames = new ArrayList<>();
+        this.associations = new HashSet<>();
+        this.associatedFields = new HashSet<>();
+        this.associationsByOrigin = new HashMap<>();
+        acceptableOriginClassNames = new HashSet<>();
         acceptableOriginClassNames.add("java.util.Collection");
         acceptableOriginClassNames.add("java.util.AbstractCollection");
         acceptableOriginClassNames.add("java.util.List");
@@ -35,19 +43,18 @@ public class AssociationDetection {
     }
 
     public boolean containsFieldObject(FieldObject field) {
-        for (Association association : associationList)
-            if (association.getFieldObject().equals(field))
-                return true;
-        return false;
+        return associatedFields.contains(field);
     }
 
     public List<Association> getAssociationsOfClass(ClassObject classObject) {
-        List<Association> associations = new ArrayList<>();
-        for (Association association : associationList) {
-            if (association.getFrom().equals(classObject.getName()))
-                associations.add(association);
+        return new ArrayList<>(associationsByOrigin.getOrDefault(classObject.getName(), Collections.emptyList()));
+    }
+
+    private void addAssociation(Association association) {
+        if (associations.add(association)) {
+            associatedFields.add(association.getFieldObject());
+            associationsByOrigin.computeIfAbsent(association.getFrom(), from -> new ArrayList<>()).add(association);
         }
-        return associations;
     }
 
     private void generateAssociations(SystemObject systemObject) {
@@ -63,30 +70,60 @@ public class AssociationDetection {
                 if (acceptableOriginClassNames.contains(type)) {
                     String genericType = fieldObject.getType().getGenericType();
                     if (genericType != null) {
-                        for (String className : systemObject.getClassNames()) {
-                            if (genericType.contains(className)) {
+                        for (String className : getTypeArgumentClassNames(fieldObject)) {
+                            if (systemObject.getClassObject(className) != null) {
                                 Association association = new Association(fieldObject, classObject.getName(), className);
                                 association.setContainer(true);
-                                if (!associationList.contains(association))
-                                    associationList.add(association);
+                                addAssociation(association);
                             }
                         }
                     } else {
                         Association association = checkCollectionAttribute(systemObject, classObject, fieldObject);
-                        if (association != null && !associationList.contains(association))
-                            associationList.add(association);
+                        if (association != null)
+                            addAssociation(association);
                     }
                 } else if (systemObject.getClassObject(type) != null) {
                     Association association = new Association(fieldObject, classObject.getName(), type);
                     if (fieldObject.getType().getArrayDimension() > 0)
                         association.setContainer(true);
-                    if (!associationList.contains(association))
-                        associationList.add(association);
+                    addAssociation(association);
                 }
             }
         }
     }
 
+    /**
+     * Returns the qualified names of the classes used in the type arguments of the type of {@code field},
+     * including nested type arguments, array component types and wildcard bounds.
+     */
+    private static Set<String> getTypeArgumentClassNames(FieldObject field) {
+        Set<String> classNames = new LinkedHashSet<>();
+        PsiType fieldType = field.getVariableDeclaration().getType();
+        if (fieldType instanceof PsiClassType) {
+            for (PsiType typeArgument : ((PsiClassType) fieldType).getParameters()) {
+                collectClassNames(typeArgument, classNames);
+            }
+        }
+        return classNames;
+    }
+
+    private static void collectClassNames(PsiType type, Set<String> classNames) {
+        if (type instanceof PsiArrayType) {
+            collectClassNames(((PsiArrayType) type).getComponentType(), classNames);
+        } else if (type instanceof PsiWildcardType) {
+            PsiType bound = ((PsiWildcardType) type).getBound();
+            if (bound != null)
+                collectClassNames(bound, classNames);
+        } else if (type instanceof PsiClassType) {
+            PsiClass psiClass = ((PsiClassType) type).resolve();
+            if (psiClass != null && psiClass.getQualifiedName() != null)
+                classNames.add(psiClass.getQualifiedName());
+            for (PsiType typeArgument : ((PsiClassType) type).getParameters()) {
+                collectClassNames(typeArgument, classNames);
+            }
+        }
+    }
+
     private Association checkCollectionAttribute(SystemObject systemObject, ClassObject classObject, FieldObject field) {
         ListIterator<MethodObject> methodIt = classObject.getMethodIterator();
         while (methodIt.hasNext()) {
@@ -105,8 +142,8 @@ public class AssociationDetection {
     }
 
     public Association getAssociation(String from, String to) {
-        for (Association association : associationList) {
-            if (association.getFrom().equals(from) && association.getTo().equals(to))
+        for (Association association : associationsByOrigin.getOrDefault(from, Collections.emptyList())) {
+            if (association.getTo().equals(to))
                 return association;
         }
         return null;
@@ -4,9 +4,7 @@ import com.intellij.psi.PsiExpression;
 import com.intellij.psi.SmartPsiElementPointer;
 
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.research.intellijdeodorant.core.ast.util.ExpressionExtractor;
-
-import java.util.List;
+import org.jetbrains.research.intellijdeodorant.core.ast.util.ExpressionCollector;
 
 import static org.jetbrains.research.intellijdeodorant.utils.PsiUtils.toPointer;
 
@@ -26,15 +24,13 @@ public class AbstractExpression extends AbstractMethodFragment {
     }
 
     private void processExpression(PsiExpression expression) {
-        ExpressionExtractor expressionExtractor = new ExpressionExtractor();
-        List<PsiExpression> assignments = expressionExtractor.getAssignments(expression);
-        List<PsiExpression> postfixExpressions = expressionExtractor.getPostfixExpressions(expression);
-        List<PsiExpression> prefixExpressions = expressionExtractor.getPrefixExpressions(expression);
-        processVariables(expressionExtractor.getVariableInstructions(expression), assignments, postfixExpressions, prefixExpressions);
-        processMethodInvocations(expressionExtractor.getMethodInvocations(expression));
-        processClassInstanceCreations(expressionExtractor.getClassInstanceCreations(expression));
-        processArrayCreations(expressionExtractor.getArrayCreations(expression));
-        processLiterals(expressionExtractor.getLiterals(expression));
+        ExpressionCollector expressionCollector = new ExpressionCollector(expression);
+        processVariables(expressionCollector.getVariableInstructions(), expressionCollector.getAssignments(),
+                expressionCollector.getPostfixExpressions(), expressionCollector.getPrefixExpressions());
+        processMethodInvocations(expressionCollector.getMethodInvocations());
+        processClassInstanceCreations(expressionCollector.getClassInstanceCreations());
+        processArrayCreations(expressionCollector.getArrayCreations());
+        processLiterals(expressionCollector.getLiterals());
     }
 
     private PsiExpression getExpression() {
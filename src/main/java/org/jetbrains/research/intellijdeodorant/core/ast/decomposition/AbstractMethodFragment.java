@@ -9,75 +9,29 @@ import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.cfg.Plain
 import org.jetbrains.research.intellijdeodorant.core.ast.util.MethodDeclarationUtility;
 
 import java.util.*;
+import java.util.function.Function;
 
 import static org.jetbrains.research.intellijdeodorant.utils.PsiUtils.resolveMethod;
 
 public abstract class AbstractMethodFragment {
     private final AbstractMethodFragment parent;
-    private final List<MethodInvocationObject> methodInvocationList;
-    private final List<SuperMethodInvocationObject> superMethodInvocationList;
-    private final List<FieldInstructionObject> fieldInstructionList;
-    private final List<SuperFieldInstructionObject> superFieldInstructionList;
-    private final List<LocalVariableDeclarationObject> localVariableDeclarationList;
-    private final List<LocalVariableInstructionObject> localVariableInstructionList;
-    private final List<CreationObject> creationList;
-    private final List<PsiExpression> literalList;
-    private final List<AnonymousClassDeclarationObject> anonymousClassDeclarationList;
-    private final Set<String> exceptionsInThrowStatements;
-    private final Map<AbstractVariable, ArrayList<MethodInvocationObject>> nonDistinctInvokedMethodsThroughFields;
-    private final Map<AbstractVariable, ArrayList<MethodInvocationObject>> nonDistinctInvokedMethodsThroughParameters;
-    private final Map<AbstractVariable, ArrayList<MethodInvocationObject>> nonDistinctInvokedMethodsThroughLocalVariables;
-    private final List<MethodInvocationObject> nonDistinctInvokedMethodsThroughThisReference;
-    private final List<MethodInvocationObject> nonDistinctInvokedStaticMethods;
-    private final List<AbstractVariable> nonDistinctDefinedFieldsThroughFields;
-    private final List<AbstractVariable> nonDistinctUsedFieldsThroughFields;
-    private final List<AbstractVariable> nonDistinctDefinedFieldsThroughParameters;
-    private final List<AbstractVariable> nonDistinctUsedFieldsThroughParameters;
-    private final List<AbstractVariable> nonDistinctDefinedFieldsThroughLocalVariables;
-    private final List<AbstractVariable> nonDistinctUsedFieldsThroughLocalVariables;
-    private final List<PlainVariable> nonDistinctDefinedFieldsThroughThisReference;
-    private final List<PlainVariable> nonDistinctUsedFieldsThroughThisReference;
-
-    private final Set<PlainVariable> declaredLocalVariables;
-    private final Set<PlainVariable> definedLocalVariables;
-    private final Set<PlainVariable> usedLocalVariables;
+    private final InstructionLog log;
+    private final int startTime;
+    private int endTime;
+    //collections derived from the instructions of the window ending at derivedEndTime, created on first use
+    private Map<InstructionLog.Sequence<?>, Object> distinctCollections;
+    private Map<InstructionLog.Sequence<?>, Object> groupedCollections;
+    private int derivedEndTime;
     private final Map<PlainVariable, LinkedHashSet<MethodInvocationObject>> parametersPassedAsArgumentsInMethodInvocations;
     private final Map<PlainVariable, LinkedHashSet<SuperMethodInvocationObject>> parametersPassedAsArgumentsInSuperMethodInvocations;
-    private final Map<PlainVariable, LinkedHashSet<ClassInstanceCreationObject>> variablesAssignedWithClassInstanceCreations;
 
     AbstractMethodFragment(AbstractMethodFragment parent) {
         this.parent = parent;
-        this.methodInvocationList = new ArrayList<>();
-        this.superMethodInvocationList = new ArrayList<>();
-        this.fieldInstructionList = new ArrayList<>();
-        this.superFieldInstructionList = new ArrayList<>();
-        this.localVariableDeclarationList = new ArrayList<>();
-        this.localVariableInstructionList = new ArrayList<>();
-        this.creationList = new ArrayList<>();
-        this.literalList = new ArrayList<>();
-        this.anonymousClassDeclarationList = new ArrayList<>();
-        this.exceptionsInThrowStatements = new LinkedHashSet<>();
-
-        this.nonDistinctInvokedMethodsThroughFields = new LinkedHashMap<>();
-        this.nonDistinctInvokedMethodsThroughParameters = new LinkedHashMap<>();
-        this.nonDistinctInvokedMethodsThroughLocalVariables = new LinkedHashMap<>();
-        this.nonDistinctInvokedMethodsThroughThisReference = new ArrayList<>();
-        this.nonDistinctInvokedStaticMethods = new ArrayList<>();
-        this.nonDistinctDefinedFieldsThroughFields = new ArrayList<>();
-        this.nonDistinctUsedFieldsThroughFields = new ArrayList<>();
-        this.nonDistinctDefinedFieldsThroughParameters = new ArrayList<>();
-        this.nonDistinctUsedFieldsThroughParameters = new ArrayList<>();
-        this.nonDistinctDefinedFieldsThroughLocalVariables = new ArrayList<>();
-        this.nonDistinctUsedFieldsThroughLocalVariables = new ArrayList<>();
-        this.nonDistinctDefinedFieldsThroughThisReference = new ArrayList<>();
-        this.nonDistinctUsedFieldsThroughThisReference = new ArrayList<>();
-
-        this.declaredLocalVariables = new LinkedHashSet<>();
-        this.definedLocalVariables = new LinkedHashSet<>();
-        this.usedLocalVariables = new LinkedHashSet<>();
+        this.log = parent != null ? parent.log : new InstructionLog();
+        this.startTime = log.currentTime();
+        this.endTime = startTime;
         this.parametersPassedAsArgumentsInMethodInvocations = new LinkedHashMap<>();
         this.parametersPassedAsArgumentsInSuperMethodInvocations = new LinkedHashMap<>();
-        this.variablesAssignedWithClassInstanceCreations = new LinkedHashMap<>();
     }
 
     public AbstractMethodFragment getParent() {
@@ -207,52 +161,31 @@ public abstract class AbstractMethodFragment {
     }
 
     private void addFieldInstruction(FieldInstructionObject fieldInstruction) {
-        fieldInstructionList.add(fieldInstruction);
-        if (parent != null) {
-            parent.addFieldInstruction(fieldInstruction);
-        }
+        record(log.fieldInstructions, fieldInstruction);
     }
 
     private void addSuperFieldInstruction(SuperFieldInstructionObject superFieldInstruction) {
-        superFieldInstructionList.add(superFieldInstruction);
-        if (parent != null) {
-            parent.addSuperFieldInstruction(superFieldInstruction);
-        }
+        record(log.superFieldInstructions, superFieldInstruction);
     }
 
     private void addLocalVariableDeclaration(LocalVariableDeclarationObject localVariable) {
-        localVariableDeclarationList.add(localVariable);
-        if (parent != null) {
-            parent.addLocalVariableDeclaration(localVariable);
-        }
+        record(log.localVariableDeclarations, localVariable);
     }
 
     private void addLocalVariableInstruction(LocalVariableInstructionObject localVariable) {
-        localVariableInstructionList.add(localVariable);
-        if (parent != null) {
-            parent.addLocalVariableInstruction(localVariable);
-        }
+        record(log.localVariableInstructions, localVariable);
     }
 
     private void addDeclaredLocalVariable(PlainVariable variable) {
-        declaredLocalVariables.add(variable);
-        if (parent != null) {
-            parent.addDeclaredLocalVariable(variable);
-        }
+        record(log.declaredLocalVariables, variable);
     }
 
     private void addDefinedLocalVariable(PlainVariable variable) {
-        definedLocalVariables.add(variable);
-        if (parent != null) {
-            parent.addDefinedLocalVariable(variable);
-        }
+        record(log.definedLocalVariables, variable);
     }
 
     private void addUsedLocalVariable(PlainVariable variable) {
-        usedLocalVariables.add(variable);
-        if (parent != null) {
-            parent.addUsedLocalVariable(variable);
-        }
+        record(log.usedLocalVariables, variable);
     }
 
     void processMethodInvocations(List<PsiExpression> methodInvocations) {
@@ -379,10 +312,7 @@ public abstract class AbstractMethodFragment {
     }
 
     private void addMethodInvocation(MethodInvocationObject methodInvocationObject) {
-        methodInvocationList.add(methodInvocationObject);
-        if (parent != null) {
-            parent.addMethodInvocation(methodInvocationObject);
-        }
+        record(log.methodInvocations, methodInvocationObject);
     }
 
     void processClassInstanceCreations(List<PsiExpression> classInstanceCreations) {
@@ -545,10 +475,7 @@ public abstract class AbstractMethodFragment {
     }
 
     private void addCreation(CreationObject creationObject) {
-        creationList.add(creationObject);
-        if (parent != null) {
-            parent.addCreation(creationObject);
-        }
+        record(log.creations, creationObject);
     }
 
     void processLiterals(List<PsiExpression> literals) {
@@ -558,17 +485,11 @@ public abstract class AbstractMethodFragment {
     }
 
     private void addLiteral(PsiExpression literalObject) {
-        literalList.add(literalObject);
-        if (parent != null) {
-            parent.addLiteral(literalObject);
-        }
+        record(log.literals, literalObject);
     }
 
     private void addAnonymousClassDeclaration(AnonymousClassDeclarationObject anonymousClassObject) {
-        anonymousClassDeclarationList.add(anonymousClassObject);
-        if (parent != null) {
-            parent.addAnonymousClassDeclaration(anonymousClassObject);
-        }
+        record(log.anonymousClassDeclarations, anonymousClassObject);
     }
 
     void processThrowStatement(PsiThrowStatement throwStatement) {
@@ -585,80 +506,31 @@ public abstract class AbstractMethodFragment {
     }
 
     private void addExceptionInThrowStatement(String exception) {
-        exceptionsInThrowStatements.add(exception);
-        if (parent != null) {
-            parent.addExceptionInThrowStatement(exception);
-        }
+        record(log.exceptionsInThrowStatements, exception);
     }
 
     private void addNonDistinctInvokedMethodThroughField(AbstractVariable field, MethodInvocationObject methodInvocation) {
-        if (nonDistinctInvokedMethodsThroughFields.containsKey(field)) {
-            ArrayList<MethodInvocationObject> methodInvocations = nonDistinctInvokedMethodsThroughFields.get(field);
-            methodInvocations.add(methodInvocation);
-        } else {
-            ArrayList<MethodInvocationObject> methodInvocations = new ArrayList<>();
-            methodInvocations.add(methodInvocation);
-            nonDistinctInvokedMethodsThroughFields.put(field, methodInvocations);
-        }
-        if (parent != null) {
-            parent.addNonDistinctInvokedMethodThroughField(field, methodInvocation);
-        }
+        record(log.invokedMethodsThroughFields, new AbstractMap.SimpleImmutableEntry<>(field, methodInvocation));
     }
 
     private void addNonDistinctInvokedMethodThroughParameter(AbstractVariable parameter, MethodInvocationObject methodInvocation) {
-        if (nonDistinctInvokedMethodsThroughParameters.containsKey(parameter)) {
-            ArrayList<MethodInvocationObject> methodInvocations = nonDistinctInvokedMethodsThroughParameters.get(parameter);
-            methodInvocations.add(methodInvocation);
-        } else {
-            ArrayList<MethodInvocationObject> methodInvocations = new ArrayList<>();
-            methodInvocations.add(methodInvocation);
-            nonDistinctInvokedMethodsThroughParameters.put(parameter, methodInvocations);
-        }
-        if (parent != null) {
-            parent.addNonDistinctInvokedMethodThroughParameter(parameter, methodInvocation);
-        }
+        record(log.invokedMethodsThroughParameters, new AbstractMap.SimpleImmutableEntry<>(parameter, methodInvocation));
     }
 
     private void addNonDistinctInvokedMethodThroughLocalVariable(AbstractVariable localVariable, MethodInvocationObject methodInvocation) {
-        if (nonDistinctInvokedMethodsThroughLocalVariables.containsKey(localVariable)) {
-            ArrayList<MethodInvocationObject> methodInvocations = nonDistinctInvokedMethodsThroughLocalVariables.get(localVariable);
-            methodInvocations.add(methodInvocation);
-        } else {
-            ArrayList<MethodInvocationObject> methodInvocations = new ArrayList<>();
-            methodInvocations.add(methodInvocation);
-            nonDistinctInvokedMethodsThroughLocalVariables.put(localVariable, methodInvocations);
-        }
-        if (parent != null) {
-            parent.addNonDistinctInvokedMethodThroughLocalVariable(localVariable, methodInvocation);
-        }
+        record(log.invokedMethodsThroughLocalVariables, new AbstractMap.SimpleImmutableEntry<>(localVariable, methodInvocation));
     }
 
     private void addNonDistinctInvokedMethodThroughThisReference(MethodInvocationObject methodInvocation) {
-        nonDistinctInvokedMethodsThroughThisReference.add(methodInvocation);
-        if (parent != null) {
-            parent.addNonDistinctInvokedMethodThroughThisReference(methodInvocation);
-        }
+        record(log.invokedMethodsThroughThisReference, methodInvocation);
     }
 
     private void addStaticallyInvokedMethod(MethodInvocationObject methodInvocation) {
-        nonDistinctInvokedStaticMethods.add(methodInvocation);
-        if (parent != null) {
-            parent.addStaticallyInvokedMethod(methodInvocation);
-        }
+        record(log.invokedStaticMethods, methodInvocation);
     }
 
     private void addVariableAssignedWithClassInstanceCreation(PlainVariable variable, ClassInstanceCreationObject classInstanceCreation) {
-        if (variablesAssignedWithClassInstanceCreations.containsKey(variable)) {
-            LinkedHashSet<ClassInstanceCreationObject> classInstanceCreations = variablesAssignedWithClassInstanceCreations.get(variable);
-            classInstanceCreations.add(classInstanceCreation);
-        } else {
-            LinkedHashSet<ClassInstanceCreationObject> classInstanceCreations = new LinkedHashSet<>();
-            classInstanceCreations.add(classInstanceCreation);
-            variablesAssignedWithClassInstanceCreations.put(variable, classInstanceCreations);
-        }
-        if (parent != null) {
-            parent.addVariableAssignedWithClassInstanceCreation(variable, classInstanceCreation);
-        }
+        record(log.variablesAssignedWithClassInstanceCreations, new AbstractMap.SimpleImmutableEntry<>(variable, classInstanceCreation));
     }
 
     private Set<PsiAssignmentExpression> getMatchingAssignments(PsiVariable variable, List<PsiExpression> assignments) {
@@ -713,19 +585,16 @@ public abstract class AbstractMethodFragment {
         if (variable != null) {
             PlainVariable initialVariable = variable.getInitialVariable();
             if (variable instanceof PlainVariable) {
-                nonDistinctDefinedFieldsThroughThisReference.add((PlainVariable) variable);
+                record(log.definedFieldsThroughThisReference, (PlainVariable) variable);
             } else {
                 if (initialVariable.isField()) {
-                    nonDistinctDefinedFieldsThroughFields.add(variable);
+                    record(log.definedFieldsThroughFields, variable);
                 } else if (initialVariable.isParameter()) {
-                    nonDistinctDefinedFieldsThroughParameters.add(variable);
+                    record(log.definedFieldsThroughParameters, variable);
                 } else {
-                    nonDistinctDefinedFieldsThroughLocalVariables.add(variable);
+                    record(log.definedFieldsThroughLocalVariables, variable);
                 }
             }
-            if (parent != null) {
-                parent.handleDefinedField(variable);
-            }
         }
     }
 
@@ -733,191 +602,233 @@ public abstract class AbstractMethodFragment {
         if (variable != null) {
             PlainVariable initialVariable = variable.getInitialVariable();
             if (variable instanceof PlainVariable) {
-                if (!nonDistinctUsedFieldsThroughThisReference.contains(variable)) {
-                    nonDistinctUsedFieldsThroughThisReference.add((PlainVariable) variable);
-                }
+                record(log.usedFieldsThroughThisReference, (PlainVariable) variable);
             } else {
                 if (initialVariable.isField()) {
-                    if (!nonDistinctUsedFieldsThroughFields.contains(variable)) {
-                        nonDistinctUsedFieldsThroughFields.add(variable);
-                    }
+                    record(log.usedFieldsThroughFields, variable);
                 } else if (initialVariable.isParameter()) {
-                    nonDistinctUsedFieldsThroughParameters.add(variable);
+                    record(log.usedFieldsThroughParameters, variable);
                 } else {
-                    nonDistinctUsedFieldsThroughLocalVariables.add(variable);
+                    record(log.usedFieldsThroughLocalVariables, variable);
                 }
             }
-            if (parent != null) {
-                parent.handleUsedField(variable);
+        }
+    }
+
+    private <T> void record(InstructionLog.Sequence<T> sequence, T instruction) {
+        int time = log.nextTime();
+        sequence.add(time, instruction);
+        for (AbstractMethodFragment fragment = this; fragment != null; fragment = fragment.parent) {
+            fragment.endTime = time + 1;
+        }
+    }
+
+    private <T> List<T> range(InstructionLog.Sequence<T> sequence) {
+        return sequence.range(startTime, endTime);
+    }
+
+    private <T> Set<T> distinct(InstructionLog.Sequence<T> sequence) {
+        return derive(sequence, true, items -> Collections.unmodifiableSet(new LinkedHashSet<>(items)));
+    }
+
+    private <K, V> Map<K, ArrayList<V>> groupByKey(InstructionLog.Sequence<Map.Entry<K, V>> sequence) {
+        return derive(sequence, false, entries -> {
+            Map<K, ArrayList<V>> map = new LinkedHashMap<>();
+            for (Map.Entry<K, V> entry : entries) {
+                map.computeIfAbsent(entry.getKey(), key -> new ArrayList<>()).add(entry.getValue());
+            }
+            return Collections.unmodifiableMap(map);
+        });
+    }
+
+    private <K, V> Map<K, LinkedHashSet<V>> groupDistinctByKey(InstructionLog.Sequence<Map.Entry<K, V>> sequence) {
+        return derive(sequence, true, entries -> {
+            Map<K, LinkedHashSet<V>> map = new LinkedHashMap<>();
+            for (Map.Entry<K, V> entry : entries) {
+                map.computeIfAbsent(entry.getKey(), key -> new LinkedHashSet<>()).add(entry.getValue());
             }
+            return Collections.unmodifiableMap(map);
+        });
+    }
+
+    /**
+     * Returns the collection derived by {@code function} from the instructions of {@code sequence} in the window of
+     * this fragment. The collection is computed once and reused until the window grows,
+     * which only happens while the fragment is being built.
+     */
+    @SuppressWarnings("unchecked")
+    private synchronized <T, D> D derive(InstructionLog.Sequence<T> sequence, boolean distinct, Function<List<T>, D> function) {
+        if (derivedEndTime != endTime) {
+            distinctCollections = null;
+            groupedCollections = null;
+            derivedEndTime = endTime;
+        }
+        if (distinct && distinctCollections == null) {
+            distinctCollections = new HashMap<>();
+        } else if (!distinct && groupedCollections == null) {
+            groupedCollections = new HashMap<>();
+        }
+        Map<InstructionLog.Sequence<?>, Object> collections = distinct ? distinctCollections : groupedCollections;
+        Object collection = collections.get(sequence);
+        if (collection == null) {
+            collection = function.apply(range(sequence));
+            collections.put(sequence, collection);
         }
+        return (D) collection;
     }
 
     public List<FieldInstructionObject> getFieldInstructions() {
-        return fieldInstructionList;
+        return range(log.fieldInstructions);
     }
 
     public List<SuperFieldInstructionObject> getSuperFieldInstructions() {
-        return superFieldInstructionList;
+        return range(log.superFieldInstructions);
     }
 
     public List<LocalVariableDeclarationObject> getLocalVariableDeclarations() {
-        return localVariableDeclarationList;
+        return range(log.localVariableDeclarations);
     }
 
     public List<LocalVariableInstructionObject> getLocalVariableInstructions() {
-        return localVariableInstructionList;
+        return range(log.localVariableInstructions);
     }
 
     public List<MethodInvocationObject> getMethodInvocations() {
-        return methodInvocationList;
+        return range(log.methodInvocations);
     }
 
     public List<SuperMethodInvocationObject> getSuperMethodInvocations() {
-        return superMethodInvocationList;
+        return range(log.superMethodInvocations);
     }
 
     public List<CreationObject> getCreations() {
-        return creationList;
+        return range(log.creations);
     }
 
     public List<PsiExpression> getLiterals() {
-        return literalList;
+        return range(log.literals);
     }
 
     public List<AnonymousClassDeclarationObject> getAnonymousClassDeclarations() {
-        return anonymousClassDeclarationList;
+        return range(log.anonymousClassDeclarations);
     }
 
     public Set<String> getExceptionsInThrowStatements() {
-        return exceptionsInThrowStatements;
+        return distinct(log.exceptionsInThrowStatements);
     }
 
     public boolean containsMethodInvocation(MethodInvocationObject methodInvocation) {
-        return methodInvocationList.contains(methodInvocation);
+        return getMethodInvocations().contains(methodInvocation);
     }
 
     public boolean containsFieldInstruction(FieldInstructionObject fieldInstruction) {
-        return fieldInstructionList.contains(fieldInstruction);
+        return getFieldInstructions().contains(fieldInstruction);
     }
 
     public boolean containsSuperMethodInvocation(SuperMethodInvocationObject superMethodInvocation) {
-        return superMethodInvocationList.contains(superMethodInvocation);
+        return getSuperMethodInvocations().contains(superMethodInvocation);
     }
 
     public Map<AbstractVariable, LinkedHashSet<MethodInvocationObject>> getInvokedMethodsThroughFields() {
-        Map<AbstractVariable, LinkedHashSet<MethodInvocationObject>> invokedMethodsThroughFields =
-                new LinkedHashMap<>();
-        for (AbstractVariable key : nonDistinctInvokedMethodsThroughFields.keySet()) {
-            invokedMethodsThroughFields.put(key, new LinkedHashSet<>(nonDistinctInvokedMethodsThroughFields.get(key)));
-        }
-        return invokedMethodsThroughFields;
+        return groupDistinctByKey(log.invokedMethodsThroughFields);
     }
 
     public Map<AbstractVariable, LinkedHashSet<MethodInvocationObject>> getInvokedMethodsThroughParameters() {
-        Map<AbstractVariable, LinkedHashSet<MethodInvocationObject>> invokedMethodsThroughParameters =
-                new LinkedHashMap<>();
-        for (AbstractVariable key : nonDistinctInvokedMethodsThroughParameters.keySet()) {
-            invokedMethodsThroughParameters.put(key, new LinkedHashSet<>(nonDistinctInvokedMethodsThroughParameters.get(key)));
-        }
-        return invokedMethodsThroughParameters;
+        return groupDistinctByKey(log.invokedMethodsThroughParameters);
     }
 
     public Map<AbstractVariable, ArrayList<MethodInvocationObject>> getNonDistinctInvokedMethodsThroughFields() {
-        return nonDistinctInvokedMethodsThroughFields;
+        return groupByKey(log.invokedMethodsThroughFields);
     }
 
     public Map<AbstractVariable, ArrayList<MethodInvocationObject>> getNonDistinctInvokedMethodsThroughParameters() {
-        return nonDistinctInvokedMethodsThroughParameters;
+        return groupByKey(log.invokedMethodsThroughParameters);
     }
 
     public Map<AbstractVariable, LinkedHashSet<MethodInvocationObject>> getInvokedMethodsThroughLocalVariables() {
-        Map<AbstractVariable, LinkedHashSet<MethodInvocationObject>> invokedMethodsThroughLocalVariables =
-                new LinkedHashMap<>();
-        for (AbstractVariable key : nonDistinctInvokedMethodsThroughLocalVariables.keySet()) {
-            invokedMethodsThroughLocalVariables.put(key, new LinkedHashSet<>(nonDistinctInvokedMethodsThroughLocalVariables.get(key)));
-        }
-        return invokedMethodsThroughLocalVariables;
+        return groupDistinctByKey(log.invokedMethodsThroughLocalVariables);
     }
 
     public Set<MethodInvocationObject> getInvokedMethodsThroughThisReference() {
-        return new LinkedHashSet<>(nonDistinctInvokedMethodsThroughThisReference);
+        return distinct(log.invokedMethodsThroughThisReference);
     }
 
     public List<MethodInvocationObject> getNonDistinctInvokedMethodsThroughThisReference() {
-        return nonDistinctInvokedMethodsThroughThisReference;
+        return range(log.invokedMethodsThroughThisReference);
     }
 
     public Set<MethodInvocationObject> getInvokedStaticMethods() {
-        return new LinkedHashSet<>(nonDistinctInvokedStaticMethods);
+        return distinct(log.invokedStaticMethods);
     }
 
     public Set<AbstractVariable> getDefinedFieldsThroughFields() {
-        return new LinkedHashSet<>(nonDistinctDefinedFieldsThroughFields);
+        return distinct(log.definedFieldsThroughFields);
     }
 
     public Set<AbstractVariable> getUsedFieldsThroughFields() {
-        return new LinkedHashSet<>(nonDistinctUsedFieldsThroughFields);
+        return distinct(log.usedFieldsThroughFields);
     }
 
     public List<AbstractVariable> getNonDistinctDefinedFieldsThroughFields() {
-        return nonDistinctDefinedFieldsThroughFields;
+        return range(log.definedFieldsThroughFields);
     }
 
     public List<AbstractVariable> getNonDistinctUsedFieldsThroughFields() {
-        return nonDistinctUsedFieldsThroughFields;
+        // a used field is recorded once per fragment
+        return new ArrayList<>(getUsedFieldsThroughFields());
     }
 
     public Set<AbstractVariable> getDefinedFieldsThroughParameters() {
-        return new LinkedHashSet<>(nonDistinctDefinedFieldsThroughParameters);
+        return distinct(log.definedFieldsThroughParameters);
     }
 
     public Set<AbstractVariable> getUsedFieldsThroughParameters() {
-        return new LinkedHashSet<>(nonDistinctUsedFieldsThroughParameters);
+        return distinct(log.usedFieldsThroughParameters);
     }
 
     public List<AbstractVariable> getNonDistinctDefinedFieldsThroughParameters() {
-        return nonDistinctDefinedFieldsThroughParameters;
+        return range(log.definedFieldsThroughParameters);
     }
 
     public List<AbstractVariable> getNonDistinctUsedFieldsThroughParameters() {
-        return nonDistinctUsedFieldsThroughParameters;
+        return range(log.usedFieldsThroughParameters);
     }
 
     public Set<AbstractVariable> getDefinedFieldsThroughLocalVariables() {
-        return new LinkedHashSet<>(nonDistinctDefinedFieldsThroughLocalVariables);
+        return distinct(log.definedFieldsThroughLocalVariables);
     }
 
     public Set<AbstractVariable> getUsedFieldsThroughLocalVariables() {
-        return new LinkedHashSet<>(nonDistinctUsedFieldsThroughLocalVariables);
+        return distinct(log.usedFieldsThroughLocalVariables);
     }
 
     public Set<PlainVariable> getDefinedFieldsThroughThisReference() {
-        return new LinkedHashSet<>(nonDistinctDefinedFieldsThroughThisReference);
+        return distinct(log.definedFieldsThroughThisReference);
     }
 
     public List<PlainVariable> getNonDistinctDefinedFieldsThroughThisReference() {
-        return nonDistinctDefinedFieldsThroughThisReference;
+        return range(log.definedFieldsThroughThisReference);
     }
 
     public Set<PlainVariable> getUsedFieldsThroughThisReference() {
-        return new LinkedHashSet<>(nonDistinctUsedFieldsThroughThisReference);
+        return distinct(log.usedFieldsThroughThisReference);
     }
 
     public List<PlainVariable> getNonDistinctUsedFieldsThroughThisReference() {
-        return nonDistinctUsedFieldsThroughThisReference;
+        // a used field is recorded once per fragment
+        return new ArrayList<>(getUsedFieldsThroughThisReference());
     }
 
     public Set<PlainVariable> getDeclaredLocalVariables() {
-        return declaredLocalVariables;
+        return distinct(log.declaredLocalVariables);
     }
 
     public Set<PlainVariable> getDefinedLocalVariables() {
-        return definedLocalVariables;
+        return distinct(log.definedLocalVariables);
     }
 
     public Set<PlainVariable> getUsedLocalVariables() {
-        return usedLocalVariables;
+        return distinct(log.usedLocalVariables);
     }
 
     public Map<PlainVariable, LinkedHashSet<MethodInvocationObject>> getParametersPassedAsArgumentsInMethodInvocations() {
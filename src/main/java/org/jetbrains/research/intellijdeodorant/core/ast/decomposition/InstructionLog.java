@@ -0,0 +1,92 @@
+package org.jetbrains.research.intellijdeodorant.core.ast.decomposition;
+
+import com.intellij.psi.PsiExpression;
+import org.jetbrains.research.intellijdeodorant.core.ast.*;
+import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.cfg.AbstractVariable;
+import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.cfg.PlainVariable;
+
+import java.util.*;
+
+/**
+ * Instructions found in a tree of {@link AbstractMethodFragment}s, stored once per tree instead of once per ancestor.
+ * Every instruction is stamped with the time it was recorded. The fragments of a method are built depth-first
+ * and only their constructors record instructions, so the instructions of a fragment and of all its descendants
+ * are recorded in one time window, and the fragment reads them as a sub-range of each sequence.
+ */
+class InstructionLog {
+    final Sequence<MethodInvocationObject> methodInvocations = new Sequence<>();
+    final Sequence<SuperMethodInvocationObject> superMethodInvocations = new Sequence<>();
+    final Sequence<FieldInstructionObject> fieldInstructions = new Sequence<>();
+    final Sequence<SuperFieldInstructionObject> superFieldInstructions = new Sequence<>();
+    final Sequence<LocalVariableDeclarationObject> localVariableDeclarations = new Sequence<>();
+    final Sequence<LocalVariableInstructionObject> localVariableInstructions = new Sequence<>();
+    final Sequence<CreationObject> creations = new Sequence<>();
+    final Sequence<PsiExpression> literals = new Sequence<>();
+    final Sequence<AnonymousClassDeclarationObject> anonymousClassDeclarations = new Sequence<>();
+    final Sequence<String> exceptionsInThrowStatements = new Sequence<>();
+    final Sequence<Map.Entry<AbstractVariable, MethodInvocationObject>> invokedMethodsThroughFields = new Sequence<>();
+    final Sequence<Map.Entry<AbstractVariable, MethodInvocationObject>> invokedMethodsThroughParameters = new Sequence<>();
+    final Sequence<Map.Entry<AbstractVariable, MethodInvocationObject>> invokedMethodsThroughLocalVariables = new Sequence<>();
+    final Sequence<MethodInvocationObject> invokedMethodsThroughThisReference = new Sequence<>();
+    final Sequence<MethodInvocationObject> invokedStaticMethods = new Sequence<>();
+    final Sequence<AbstractVariable> definedFieldsThroughFields = new Sequence<>();
+    final Sequence<AbstractVariable> usedFieldsThroughFields = new Sequence<>();
+    final Sequence<AbstractVariable> definedFieldsThroughParameters = new Sequence<>();
+    final Sequence<AbstractVariable> usedFieldsThroughParameters = new Sequence<>();
+    final Sequence<AbstractVariable> definedFieldsThroughLocalVariables = new Sequence<>();
+    final Sequence<AbstractVariable> usedFieldsThroughLocalVariables = new Sequence<>();
+    final Sequence<PlainVariable> definedFieldsThroughThisReference = new Sequence<>();
+    final Sequence<PlainVariable> usedFieldsThroughThisReference = new Sequence<>();
+    final Sequence<PlainVariable> declaredLocalVariables = new Sequence<>();
+    final Sequence<PlainVariable> definedLocalVariables = new Sequence<>();
+    final Sequence<PlainVariable> usedLocalVariables = new Sequence<>();
+    final Sequence<Map.Entry<PlainVariable, ClassInstanceCreationObject>> variablesAssignedWithClassInstanceCreations = new Sequence<>();
+    private int time;
+
+    int currentTime() {
+        return time;
+    }
+
+    int nextTime() {
+        return time++;
+    }
+
+    static class Sequence<T> {
+        private final List<T> items = new ArrayList<>(0);
+        private int[] times = new int[0];
+
+        void add(int time, T item) {
+            if (items.size() == times.length) {
+                times = Arrays.copyOf(times, Math.max(8, times.length * 2));
+            }
+            times[items.size()] = time;
+            items.add(item);
+        }
+
+        /**
+         * Returns a read-only view of the items recorded in the time window [{@code fromTime}, {@code toTime}).
+         */
+        List<T> range(int fromTime, int toTime) {
+            int from = firstIndexAtOrAfter(fromTime);
+            int to = firstIndexAtOrAfter(toTime);
+            if (from >= to) {
+                return Collections.emptyList();
+            }
+            return Collections.unmodifiableList(items.subList(from, to));
+        }
+
+        private int firstIndexAtOrAfter(int time) {
+            int low = 0;
+            int high = items.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (times[middle] < time) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package org.jetbrains.research.intellijdeodorant.core.ast.decomposition;
 
 import com.intellij.psi.*;
-import org.jetbrains.research.intellijdeodorant.core.ast.util.ExpressionExtractor;
+import org.jetbrains.research.intellijdeodorant.core.ast.util.ExpressionCollector;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -25,16 +25,14 @@ public class StatementObject extends AbstractStatement {
     public StatementObject(PsiStatement statement, StatementType type, AbstractMethodFragment parent) {
         super(statement, type, parent);
 
-        ExpressionExtractor expressionExtractor = new ExpressionExtractor();
-        List<PsiExpression> assignments = expressionExtractor.getAssignments(statement);
-        List<PsiExpression> postfixExpressions = expressionExtractor.getPostfixExpressions(statement);
-        List<PsiExpression> prefixExpressions = expressionExtractor.getPrefixExpressions(statement);
-        processVariables(expressionExtractor.getVariableInstructions(statement), assignments, postfixExpressions, prefixExpressions);
+        ExpressionCollector expressionCollector = new ExpressionCollector(statement);
+        processVariables(expressionCollector.getVariableInstructions(), expressionCollector.getAssignments(),
+                expressionCollector.getPostfixExpressions(), expressionCollector.getPrefixExpressions());
         processLocalVariableDeclaration(statement);
-        processMethodInvocations(expressionExtractor.getMethodInvocations(statement));
-        processClassInstanceCreations(expressionExtractor.getClassInstanceCreations(statement));
-        processArrayCreations(expressionExtractor.getArrayCreations(statement));
-        processLiterals(expressionExtractor.getLiterals(statement));
+        processMethodInvocations(expressionCollector.getMethodInvocations());
+        processClassInstanceCreations(expressionCollector.getClassInstanceCreations());
+        processArrayCreations(expressionCollector.getArrayCreations());
+        processLiterals(expressionCollector.getLiterals());
         if (statement instanceof PsiThrowStatement) {
             processThrowStatement((PsiThrowStatement) statement);
         }
@@ -1,16 +1,12 @@
 package org.jetbrains.research.intellijdeodorant.core.ast.decomposition.cfg;
 
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.*;
 
 class BasicBlockCFG {
     private final List<BasicBlock> basicBlocks;
     private final Map<BasicBlock, Set<BasicBlock>> forwardReachableBlocks;
+    //blocks reachable from each block without following loopback flows, as bit sets of block ids
+    private BitSet[] reachableBlockIds;
 
     BasicBlockCFG(CFG cfg) {
         this.basicBlocks = new ArrayList<>();
@@ -33,7 +29,7 @@ class BasicBlockCFG {
                     basicBlock.addTryNode(tryNode);
                 }
             } else if (cfgNode.isLeader()) {
-                BasicBlock basicBlock = new BasicBlock(cfgNode);
+                BasicBlock basicBlock = new BasicBlock(cfgNode, basicBlocks.size() + 1);
                 if (!basicBlocks.isEmpty()) {
                     BasicBlock previousBlock = basicBlocks.get(basicBlocks.size() - 1);
                     previousBlock.setNextBasicBlock(basicBlock);
@@ -55,29 +51,83 @@ class BasicBlockCFG {
                 }
             }
         }
-        BasicBlock.resetBlockNum();
     }
 
     public List<BasicBlock> getBasicBlocks() {
         return basicBlocks;
     }
 
+    /**
+     * Returns the blocks reachable from {@code basicBlock} without following loopback flows, in depth-first order
+     * starting with the block itself. Block-based regions list their nodes in this order.
+     */
     public Set<BasicBlock> forwardReachableBlocks(BasicBlock basicBlock) {
         if (forwardReachableBlocks.containsKey(basicBlock))
             return forwardReachableBlocks.get(basicBlock);
         Set<BasicBlock> reachableBlocks = new LinkedHashSet<>();
         reachableBlocks.add(basicBlock);
+        for (BasicBlock successor : forwardSuccessors(basicBlock)) {
+            reachableBlocks.add(successor);
+            reachableBlocks.addAll(forwardReachableBlocks(successor));
+        }
+        forwardReachableBlocks.put(basicBlock, reachableBlocks);
+        return reachableBlocks;
+    }
+
+    /**
+     * Returns the ids of the blocks reachable from {@code basicBlock} without following loopback flows,
+     * including the block itself. The returned bit set must not be modified.
+     */
+    BitSet forwardReachableBlockIds(BasicBlock basicBlock) {
+        if (reachableBlockIds == null)
+            reachableBlockIds = new BitSet[basicBlocks.size() + 1];
+        if (reachableBlockIds[basicBlock.getId()] == null)
+            computeForwardReachableBlockIds(basicBlock);
+        return reachableBlockIds[basicBlock.getId()];
+    }
+
+    //post-order traversal, so that the blocks reachable from a block are the union of those reachable from its successors
+    private void computeForwardReachableBlockIds(BasicBlock basicBlock) {
+        BitSet enteredBlockIds = new BitSet();
+        Deque<BasicBlock> stack = new ArrayDeque<>();
+        stack.push(basicBlock);
+        while (!stack.isEmpty()) {
+            BasicBlock block = stack.peek();
+            if (reachableBlockIds[block.getId()] != null) {
+                stack.pop();
+                continue;
+            }
+            List<BasicBlock> successors = forwardSuccessors(block);
+            if (!enteredBlockIds.get(block.getId())) {
+                enteredBlockIds.set(block.getId());
+                for (BasicBlock successor : successors) {
+                    if (!enteredBlockIds.get(successor.getId()))
+                        stack.push(successor);
+                }
+            } else {
+                BitSet blockIds = new BitSet();
+                blockIds.set(block.getId());
+                for (BasicBlock successor : successors) {
+                    //a successor still in progress would be reached again through a cycle
+                    if (reachableBlockIds[successor.getId()] != null)
+                        blockIds.or(reachableBlockIds[successor.getId()]);
+                }
+                reachableBlockIds[block.getId()] = blockIds;
+                stack.pop();
+            }
+        }
+    }
+
+    private List<BasicBlock> forwardSuccessors(BasicBlock basicBlock) {
+        List<BasicBlock> successors = new ArrayList<>();
         CFGNode lastNode = basicBlock.getLastNode();
         for (GraphEdge edge : lastNode.outgoingEdges) {
             Flow flow = (Flow) edge;
             if (!flow.isLoopbackFlow()) {
                 CFGNode dstNode = (CFGNode) flow.dst;
-                BasicBlock dstBasicBlock = dstNode.getBasicBlock();
-                reachableBlocks.add(dstBasicBlock);
-                reachableBlocks.addAll(forwardReachableBlocks(dstBasicBlock));
+                successors.add(dstNode.getBasicBlock());
             }
         }
-        forwardReachableBlocks.put(basicBlock, reachableBlocks);
-        return reachableBlocks;
+        return successors;
     }
-}
\ No newline at end of file
+}
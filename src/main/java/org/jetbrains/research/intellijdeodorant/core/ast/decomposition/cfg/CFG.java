@@ -16,6 +16,7 @@ public class CFG extends Graph {
     private final Map<CFGBranchSwitchNode, List<CFGNode>> switchBreakMap;
     private final Map<CFGBlockNode, List<CFGNode>> directlyNestedNodesInBlocks;
     private BasicBlockCFG basicBlockCFG;
+    private int nodeNum;
 
     public CFG(AbstractMethodDeclaration method) {
         this.method = method;
@@ -26,7 +27,6 @@ public class CFG extends Graph {
         if (methodBody != null) {
             CompositeStatementObject composite = methodBody.getCompositeStatement();
             process(new ArrayList<>(), composite);
-            GraphNode.resetNodeNum();
             this.basicBlockCFG = new BasicBlockCFG(this);
         }
     }
@@ -47,9 +47,13 @@ public class CFG extends Graph {
         return directlyNestedNodesInBlocks;
     }
 
+    private int nextNodeId() {
+        return ++nodeNum;
+    }
+
     private List<CFGNode> process(List<CFGNode> previousNodes, CompositeStatementObject composite) {
         if (composite instanceof TryStatementObject) {
-            CFGTryNode tryNode = new CFGTryNode(composite);
+            CFGTryNode tryNode = new CFGTryNode(composite, nextNodeId());
             directlyNestedNodeInBlock(tryNode);
             findBlockNodeControlParent(tryNode);
             directlyNestedNodesInBlocks.put(tryNode, new ArrayList<>());
@@ -58,7 +62,7 @@ public class CFG extends Graph {
                 composite = (CompositeStatementObject) firstStatement;
             }
         } else if (composite instanceof SynchronizedStatementObject) {
-            CFGSynchronizedNode synchronizedNode = new CFGSynchronizedNode(composite);
+            CFGSynchronizedNode synchronizedNode = new CFGSynchronizedNode(composite, nextNodeId());
             directlyNestedNodeInBlock(synchronizedNode);
             findBlockNodeControlParent(synchronizedNode);
             directlyNestedNodesInBlocks.put(synchronizedNode, new ArrayList<>());
@@ -125,7 +129,7 @@ public class CFG extends Graph {
     }
 
     private List<CFGNode> processSynchronizedStatement(List<CFGNode> previousNodes, CompositeStatementObject compositeStatement) {
-        CFGSynchronizedNode synchronizedNode = new CFGSynchronizedNode(compositeStatement);
+        CFGSynchronizedNode synchronizedNode = new CFGSynchronizedNode(compositeStatement, nextNodeId());
         directlyNestedNodeInBlock(synchronizedNode);
         findBlockNodeControlParent(synchronizedNode);
         nodes.add(synchronizedNode);
@@ -145,7 +149,7 @@ public class CFG extends Graph {
         TryStatementObject tryStatement = (TryStatementObject) compositeStatement;
         if (!tryStatement.hasResources()) {
             //if a try node does not have resources, it is treated as a block and is omitted
-            CFGTryNode tryNode = new CFGTryNode(compositeStatement);
+            CFGTryNode tryNode = new CFGTryNode(compositeStatement, nextNodeId());
             //nodes.add(tryNode);
             directlyNestedNodeInBlock(tryNode);
             findBlockNodeControlParent(tryNode);
@@ -158,7 +162,7 @@ public class CFG extends Graph {
             }
         } else {
             //if a try node has resources, it is treated as a non-composite node
-            CFGTryNode tryNode = new CFGTryNode(compositeStatement);
+            CFGTryNode tryNode = new CFGTryNode(compositeStatement, nextNodeId());
             directlyNestedNodeInBlock(tryNode);
             findBlockNodeControlParent(tryNode);
             nodes.add(tryNode);
@@ -200,7 +204,7 @@ public class CFG extends Graph {
     private List<CFGNode> processDoStatement(List<CFGNode> previousNodes, CompositeStatementObject compositeStatement) {
         List<CFGNode> tmpNodes = previousNodes;
         previousNodes = process(previousNodes, compositeStatement);
-        CFGBranchNode currentNode = new CFGBranchDoLoopNode(compositeStatement);
+        CFGBranchNode currentNode = new CFGBranchDoLoopNode(compositeStatement, nextNodeId());
         nodes.add(currentNode);
         directlyNestedNodeInBlock(currentNode);
         createTopDownFlow(previousNodes, currentNode);
@@ -218,7 +222,7 @@ public class CFG extends Graph {
     }
 
     private List<CFGNode> processLoopStatement(List<CFGNode> previousNodes, CompositeStatementObject compositeStatement) {
-        CFGBranchNode currentNode = new CFGBranchLoopNode(compositeStatement);
+        CFGBranchNode currentNode = new CFGBranchLoopNode(compositeStatement, nextNodeId());
         nodes.add(currentNode);
         directlyNestedNodeInBlock(currentNode);
         createTopDownFlow(previousNodes, currentNode);
@@ -446,17 +450,17 @@ public class CFG extends Graph {
         CFGNode currentNode;
         PsiElement astStatement = statement.getStatement();
         if (astStatement instanceof PsiReturnStatement)
-            currentNode = new CFGExitNode(statement);
+            currentNode = new CFGExitNode(statement, nextNodeId());
         else if (astStatement instanceof PsiSwitchLabelStatement)
-            currentNode = new CFGSwitchCaseNode(statement);
+            currentNode = new CFGSwitchCaseNode(statement, nextNodeId());
         else if (astStatement instanceof PsiBreakStatement)
-            currentNode = new CFGBreakNode(statement);
+            currentNode = new CFGBreakNode(statement, nextNodeId());
         else if (astStatement instanceof PsiContinueStatement)
-            currentNode = new CFGContinueNode(statement);
+            currentNode = new CFGContinueNode(statement, nextNodeId());
         else if (astStatement instanceof PsiThrowStatement)
-            currentNode = new CFGThrowNode(statement);
+            currentNode = new CFGThrowNode(statement, nextNodeId());
         else
-            currentNode = new CFGNode(statement);
+            currentNode = new CFGNode(statement, nextNodeId());
         directlyNestedNodeInBlock(currentNode);
         return currentNode;
     }
@@ -499,7 +503,7 @@ public class CFG extends Graph {
     }
 
     private List<CFGNode> processSwitchStatement(List<CFGNode> previousNodes, CompositeStatementObject compositeStatement, int action) {
-        CFGBranchSwitchNode currentNode = new CFGBranchSwitchNode(compositeStatement);
+        CFGBranchSwitchNode currentNode = new CFGBranchSwitchNode(compositeStatement, nextNodeId());
         handleAction(currentNode, action);
         nodes.add(currentNode);
         directlyNestedNodeInBlock(currentNode);
@@ -521,7 +525,7 @@ public class CFG extends Graph {
     }
 
     private List<CFGNode> processIfStatement(List<CFGNode> previousNodes, CompositeStatementObject compositeStatement, int action) {
-        CFGBranchIfNode currentNode = new CFGBranchIfNode(compositeStatement);
+        CFGBranchIfNode currentNode = new CFGBranchIfNode(compositeStatement, nextNodeId());
         handleAction(currentNode, action);
         nodes.add(currentNode);
         directlyNestedNodeInBlock(currentNode);
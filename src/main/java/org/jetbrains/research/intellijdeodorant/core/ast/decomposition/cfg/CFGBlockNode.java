@@ -6,8 +6,8 @@ class CFGBlockNode extends CFGNode {
 
     private CFGNode controlParent;
 
-    CFGBlockNode(AbstractStatement statement) {
-        super(statement);
+    CFGBlockNode(AbstractStatement statement, int id) {
+        super(statement, id);
     }
 
     CFGNode getControlParent() {
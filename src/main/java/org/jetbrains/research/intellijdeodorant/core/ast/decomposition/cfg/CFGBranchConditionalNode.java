@@ -8,8 +8,8 @@ import java.util.List;
 public abstract class CFGBranchConditionalNode extends CFGBranchNode {
     private CFGNode joinNode;
 
-    CFGBranchConditionalNode(AbstractStatement statement) {
-        super(statement);
+    CFGBranchConditionalNode(AbstractStatement statement, int id) {
+        super(statement, id);
     }
 
     void setJoinNode(CFGNode joinNode) {
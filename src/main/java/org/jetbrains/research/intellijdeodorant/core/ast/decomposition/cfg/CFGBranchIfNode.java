@@ -13,8 +13,8 @@ import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.Composite
 
 class CFGBranchIfNode extends CFGBranchConditionalNode {
 
-    CFGBranchIfNode(AbstractStatement statement) {
-        super(statement);
+    CFGBranchIfNode(AbstractStatement statement, int id) {
+        super(statement, id);
     }
 
     Set<CFGNode> getImmediatelyNestedNodesInTrueControlFlow() {
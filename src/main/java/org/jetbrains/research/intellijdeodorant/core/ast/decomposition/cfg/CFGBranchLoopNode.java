@@ -7,8 +7,8 @@ import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.AbstractS
 
 public class CFGBranchLoopNode extends CFGBranchNode {
 
-    public CFGBranchLoopNode(AbstractStatement statement) {
-        super(statement);
+    public CFGBranchLoopNode(AbstractStatement statement, int id) {
+        super(statement, id);
     }
 
     public CFGNode getJoinNode() {
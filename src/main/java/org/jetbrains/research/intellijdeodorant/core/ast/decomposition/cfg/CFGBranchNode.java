@@ -14,8 +14,8 @@ import java.util.Set;
 
 public abstract class CFGBranchNode extends CFGNode {
 
-    CFGBranchNode(AbstractStatement statement) {
-        super(statement);
+    CFGBranchNode(AbstractStatement statement, int id) {
+        super(statement, id);
     }
 
     Flow getTrueControlFlow() {
@@ -4,7 +4,7 @@ import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.AbstractS
 
 class CFGBranchSwitchNode extends CFGBranchConditionalNode {
 
-    CFGBranchSwitchNode(AbstractStatement statement) {
-        super(statement);
+    CFGBranchSwitchNode(AbstractStatement statement, int id) {
+        super(statement, id);
     }
 }
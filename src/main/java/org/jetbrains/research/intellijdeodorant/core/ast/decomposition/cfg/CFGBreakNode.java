@@ -7,8 +7,8 @@ class CFGBreakNode extends CFGNode {
     private String label;
     private CFGNode innerMostLoopNode;
 
-    CFGBreakNode(AbstractStatement statement) {
-        super(statement);
+    CFGBreakNode(AbstractStatement statement, int id) {
+        super(statement, id);
         PsiBreakStatement breakStatement = (PsiBreakStatement) statement.getStatement();
         if (breakStatement.getLabelIdentifier() != null)
             label = breakStatement.getLabelIdentifier().getText();
@@ -7,8 +7,8 @@ class CFGContinueNode extends CFGNode {
     private String label;
     private CFGNode innerMostLoopNode;
 
-    CFGContinueNode(AbstractStatement statement) {
-        super(statement);
+    CFGContinueNode(AbstractStatement statement, int id) {
+        super(statement, id);
         PsiContinueStatement continueStatement = (PsiContinueStatement) statement.getStatement();
         if (continueStatement.getLabelIdentifier() != null)
             label = continueStatement.getLabelIdentifier().getText();
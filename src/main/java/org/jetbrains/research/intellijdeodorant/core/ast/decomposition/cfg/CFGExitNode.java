@@ -8,8 +8,8 @@ import java.util.List;
 class CFGExitNode extends CFGNode {
     private PlainVariable returnedVariable;
 
-    CFGExitNode(AbstractStatement statement) {
-        super(statement);
+    CFGExitNode(AbstractStatement statement, int id) {
+        super(statement, id);
         List<PlainVariable> usedVariables = new ArrayList<>(statement.getUsedLocalVariables());
         List<PlainVariable> usedFields = new ArrayList<>(statement.getUsedFieldsThroughThisReference());
         if (usedVariables.size() == 1 && usedFields.size() == 0) {
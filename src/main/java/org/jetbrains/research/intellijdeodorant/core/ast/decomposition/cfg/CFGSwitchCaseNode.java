@@ -6,8 +6,8 @@ import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.AbstractS
 class CFGSwitchCaseNode extends CFGNode {
     private final boolean isDefault;
 
-    CFGSwitchCaseNode(AbstractStatement statement) {
-        super(statement);
+    CFGSwitchCaseNode(AbstractStatement statement, int id) {
+        super(statement, id);
         PsiSwitchLabelStatement switchCase = (PsiSwitchLabelStatement) statement.getStatement();
         isDefault = switchCase.isDefaultCase();
     }
@@ -3,7 +3,7 @@ package org.jetbrains.research.intellijdeodorant.core.ast.decomposition.cfg;
 import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.AbstractStatement;
 
 class CFGSynchronizedNode extends CFGBlockNode {
-    CFGSynchronizedNode(AbstractStatement statement) {
-        super(statement);
+    CFGSynchronizedNode(AbstractStatement statement, int id) {
+        super(statement, id);
     }
 }
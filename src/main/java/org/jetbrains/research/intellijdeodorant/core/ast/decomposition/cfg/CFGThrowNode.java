@@ -4,8 +4,8 @@ import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.AbstractS
 
 class CFGThrowNode extends CFGNode {
 
-    CFGThrowNode(AbstractStatement statement) {
-        super(statement);
+    CFGThrowNode(AbstractStatement statement, int id) {
+        super(statement, id);
     }
 
 }
@@ -11,8 +11,8 @@ class CFGTryNode extends CFGBlockNode {
     private final List<String> handledExceptions;
     private final boolean hasResources;
 
-    CFGTryNode(AbstractStatement statement) {
-        super(statement);
+    CFGTryNode(AbstractStatement statement, int id) {
+        super(statement, id);
         this.handledExceptions = new ArrayList<>();
         TryStatementObject tryStatement = (TryStatementObject) statement;
         this.hasResources = tryStatement.hasResources();
@@ -4,18 +4,20 @@ import java.util.LinkedHashSet;
 import java.util.Set;
 
 public class GraphNode {
-    private static int nodeNum = 0;
     protected int id;
     protected final Set<GraphEdge> incomingEdges;
     protected final Set<GraphEdge> outgoingEdges;
 
     GraphNode() {
-        nodeNum++;
-        this.id = nodeNum;
         this.incomingEdges = new LinkedHashSet<>();
         this.outgoingEdges = new LinkedHashSet<>();
     }
 
+    GraphNode(int id) {
+        this();
+        this.id = id;
+    }
+
     public int getId() {
         return id;
     }
@@ -27,8 +29,4 @@ public class GraphNode {
     void addOutgoingEdge(GraphEdge edge) {
         outgoingEdges.add(edge);
     }
-
-    static void resetNodeNum() {
-        nodeNum = 0;
-    }
 }
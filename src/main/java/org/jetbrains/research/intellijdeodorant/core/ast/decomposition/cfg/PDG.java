@@ -1,7 +1,6 @@
 package org.jetbrains.research.intellijdeodorant.core.ast.decomposition.cfg;
 
 import com.intellij.psi.*;
-import org.jetbrains.annotations.NotNull;
 import org.jetbrains.research.intellijdeodorant.core.ast.*;
 
 import java.util.*;
@@ -12,7 +11,8 @@ public class PDG extends Graph {
     private final Map<CFGBranchNode, Set<CFGNode>> nestingMap;
     private final Set<VariableDeclarationObject> variableDeclarationsInMethod;
     private final Set<FieldObject> fieldsAccessedInMethod;
-    private final Map<PDGNode, Set<BasicBlock>> dominatedBlockMap;
+    private final Map<PDGNode, BitSet> dominatedBlockMap;
+    private PDGDependenceIndex dependenceIndex;
     private final PsiFile psiFile;
 
     public PDG(CFG cfg, PsiFile psiFile, Set<FieldObject> accessedFields) {
@@ -42,7 +42,6 @@ public class PDG extends Graph {
             createDataDependencies();
         }
         this.dominatedBlockMap = new LinkedHashMap<>();
-        GraphNode.resetNodeNum();
         handleSwitchCaseNodes();
         handleJumpNodes();
         handleThrowExceptionNodes();
@@ -99,39 +98,25 @@ public class PDG extends Graph {
     }
 
     Map<CompositeVariable, LinkedHashSet<PDGNode>> getDefinedAttributesOfReference(PlainVariable reference) {
-        Map<CompositeVariable, LinkedHashSet<PDGNode>> definedPropertiesMap = new LinkedHashMap<>();
-        for (GraphNode node : nodes) {
-            PDGNode pdgNode = (PDGNode) node;
-            for (AbstractVariable definedVariable : pdgNode.definedVariables) {
-                if (definedVariable instanceof CompositeVariable) {
-                    CompositeVariable compositeVariable = (CompositeVariable) definedVariable;
-                    if (compositeVariable.getInitialVariable().equals(reference)) {
-                        if (definedPropertiesMap.containsKey(compositeVariable)) {
-                            LinkedHashSet<PDGNode> nodeCriteria = definedPropertiesMap.get(compositeVariable);
-                            nodeCriteria.add(pdgNode);
-                        } else {
-                            LinkedHashSet<PDGNode> nodeCriteria = new LinkedHashSet<>();
-                            nodeCriteria.add(pdgNode);
-                            definedPropertiesMap.put(compositeVariable, nodeCriteria);
-                        }
-                    }
-                }
-            }
-        }
-        return definedPropertiesMap;
+        return Collections.unmodifiableMap(getDependenceIndex().getDefinedAttributes(reference));
     }
 
     Set<PDGNode> getAssignmentNodesOfVariableCriterion(AbstractVariable localVariableCriterion) {
         Set<PDGNode> nodeCriteria = new LinkedHashSet<>();
-        for (GraphNode node : nodes) {
-            PDGNode pdgNode = (PDGNode) node;
-            if (pdgNode.definesLocalVariable(localVariableCriterion) &&
-                    !pdgNode.declaresLocalVariable(localVariableCriterion))
+        for (PDGNode pdgNode : getDependenceIndex().getDefiningNodes(localVariableCriterion)) {
+            if (!pdgNode.declaresLocalVariable(localVariableCriterion))
                 nodeCriteria.add(pdgNode);
         }
         return nodeCriteria;
     }
 
+    //built on first use, once all the dependences of the PDG are known
+    PDGDependenceIndex getDependenceIndex() {
+        if (dependenceIndex == null)
+            dependenceIndex = new PDGDependenceIndex(this);
+        return dependenceIndex;
+    }
+
     private void handleThrowExceptionNodes() {
         for (GraphNode node : this.nodes) {
             PDGNode pdgNode = (PDGNode) node;
@@ -168,15 +153,13 @@ public class PDG extends Graph {
     }
 
     private boolean isControlDependent(PDGNode node, PDGNode targetNode) {
-        for (GraphEdge edge : node.incomingEdges) {
-            PDGDependence dependence = (PDGDependence) edge;
-            if (dependence instanceof PDGControlDependence) {
-                PDGControlDependence controlDependence = (PDGControlDependence) dependence;
-                PDGNode srcPDGNode = (PDGNode) controlDependence.src;
-                if (srcPDGNode.equals(targetNode))
-                    return true;
-                return isControlDependent(srcPDGNode, targetNode);
-            }
+        BitSet visitedNodes = new BitSet();
+        PDGNode srcPDGNode = node.getControlDependenceParent();
+        while (srcPDGNode != null && !visitedNodes.get(srcPDGNode.getId())) {
+            if (srcPDGNode.equals(targetNode))
+                return true;
+            visitedNodes.set(srcPDGNode.getId());
+            srcPDGNode = srcPDGNode.getControlDependenceParent();
         }
         return false;
     }
@@ -312,43 +295,39 @@ public class PDG extends Graph {
     }
 
     private PDGNode getLoopNodeUnderLabel(PDGNode node, String label) {
-        for (GraphEdge edge : node.incomingEdges) {
-            PDGDependence dependence = (PDGDependence) edge;
-            if (dependence instanceof PDGControlDependence) {
-                PDGControlDependence controlDependence = (PDGControlDependence) dependence;
-                PDGNode srcPDGNode = (PDGNode) controlDependence.src;
-                CFGNode srcCFGNode = srcPDGNode.getCFGNode();
-                if (srcCFGNode instanceof CFGBranchLoopNode
-                        || srcCFGNode instanceof CFGBranchDoLoopNode
-                        || srcCFGNode instanceof CFGBranchSwitchNode) {
-                    PsiStatement predicate = srcCFGNode.getASTStatement();
-                    if (predicate.getParent() instanceof PsiLabeledStatement) {
-                        PsiLabeledStatement labeled = (PsiLabeledStatement) predicate.getParent();
-                        if (labeled.getLabelIdentifier().getText().equals(label))
-                            return srcPDGNode;
-                    }
+        BitSet visitedNodes = new BitSet();
+        PDGNode srcPDGNode = node.getControlDependenceParent();
+        while (srcPDGNode != null && !visitedNodes.get(srcPDGNode.getId())) {
+            CFGNode srcCFGNode = srcPDGNode.getCFGNode();
+            if (srcCFGNode instanceof CFGBranchLoopNode
+                    || srcCFGNode instanceof CFGBranchDoLoopNode
+                    || srcCFGNode instanceof CFGBranchSwitchNode) {
+                PsiStatement predicate = srcCFGNode.getASTStatement();
+                if (predicate.getParent() instanceof PsiLabeledStatement) {
+                    PsiLabeledStatement labeled = (PsiLabeledStatement) predicate.getParent();
+                    if (labeled.getLabelIdentifier().getText().equals(label))
+                        return srcPDGNode;
                 }
-                return getLoopNodeUnderLabel(srcPDGNode, label);
             }
+            visitedNodes.set(srcPDGNode.getId());
+            srcPDGNode = srcPDGNode.getControlDependenceParent();
         }
         return null;
     }
 
     private PDGNode getInnerMostLoopNode(PDGNode node, boolean isBreak) {
-        for (GraphEdge edge : node.incomingEdges) {
-            PDGDependence dependence = (PDGDependence) edge;
-            if (dependence instanceof PDGControlDependence) {
-                PDGControlDependence controlDependence = (PDGControlDependence) dependence;
-                PDGNode srcPDGNode = (PDGNode) controlDependence.src;
-                CFGNode srcCFGNode = srcPDGNode.getCFGNode();
-                if (isBreak && (srcCFGNode instanceof CFGBranchLoopNode
-                        || srcCFGNode instanceof CFGBranchDoLoopNode
-                        || srcCFGNode instanceof CFGBranchSwitchNode))
-                    return srcPDGNode;
-                if (!isBreak && (srcCFGNode instanceof CFGBranchLoopNode || srcCFGNode instanceof CFGBranchDoLoopNode))
-                    return srcPDGNode;
-                return getInnerMostLoopNode(srcPDGNode, isBreak);
-            }
+        BitSet visitedNodes = new BitSet();
+        PDGNode srcPDGNode = node.getControlDependenceParent();
+        while (srcPDGNode != null && !visitedNodes.get(srcPDGNode.getId())) {
+            CFGNode srcCFGNode = srcPDGNode.getCFGNode();
+            if (isBreak && (srcCFGNode instanceof CFGBranchLoopNode
+                    || srcCFGNode instanceof CFGBranchDoLoopNode
+                    || srcCFGNode instanceof CFGBranchSwitchNode))
+                return srcPDGNode;
+            if (!isBreak && (srcCFGNode instanceof CFGBranchLoopNode || srcCFGNode instanceof CFGBranchDoLoopNode))
+                return srcPDGNode;
+            visitedNodes.set(srcPDGNode.getId());
+            srcPDGNode = srcPDGNode.getControlDependenceParent();
         }
         return null;
     }
@@ -481,32 +460,33 @@ public class PDG extends Graph {
         PDGNode firstPDGNode = (PDGNode) nodes.toArray()[0];
         ReachingAliasSet reachingAliasSet = new ReachingAliasSet();
         firstPDGNode.updateReachingAliasSet(reachingAliasSet);
-        aliasSearch(firstPDGNode, new LinkedHashSet<>(), false, reachingAliasSet);
+        aliasSearch(firstPDGNode, reachingAliasSet);
     }
 
     private void createDataDependencies() {
         PDGNode firstPDGNode = (PDGNode) nodes.toArray()[0];
-        createDataDependenciesFromEntryNode(firstPDGNode);
+        ReachingDefinitions reachingDefinitions = new ReachingDefinitions(nodes, edges);
+        createDataDependenciesFromEntryNode(firstPDGNode, reachingDefinitions);
         for (GraphNode node : nodes) {
-            PDGNode pdgNode = (PDGNode) node;
-            for (AbstractVariable variableInstruction : pdgNode.definedVariables) {
-                dataDependenceSearch(pdgNode, variableInstruction, pdgNode, new LinkedHashSet<>(), null);
-                outputDependenceSearch(pdgNode, variableInstruction, pdgNode, new LinkedHashSet<>(), null);
-            }
-            for (AbstractVariable variableInstruction : pdgNode.usedVariables) {
-                antiDependenceSearch(pdgNode, variableInstruction, pdgNode, new LinkedHashSet<>(), null);
-            }
+            reachingDefinitions.addNode((PDGNode) node);
         }
+        reachingDefinitions.createDependencies();
     }
 
     private void createDataDependenciesFromEntryNode(PDGNode pdgNode) {
+        ReachingDefinitions reachingDefinitions = new ReachingDefinitions(nodes, edges);
+        createDataDependenciesFromEntryNode(pdgNode, reachingDefinitions);
+        reachingDefinitions.createDependencies();
+    }
+
+    private void createDataDependenciesFromEntryNode(PDGNode pdgNode, ReachingDefinitions reachingDefinitions) {
         for (AbstractVariable variableInstruction : entryNode.definedVariables) {
             if (pdgNode.usesLocalVariable(variableInstruction)) {
                 PDGDataDependence dataDependence = new PDGDataDependence(entryNode, pdgNode, variableInstruction, null);
                 edges.add(dataDependence);
             }
             if (!pdgNode.definesLocalVariable(variableInstruction)) {
-                dataDependenceSearch(entryNode, variableInstruction, pdgNode, new LinkedHashSet<>(), null);
+                reachingDefinitions.addEntryDefinition(entryNode, variableInstruction, pdgNode);
             } else if (entryNode.declaresLocalVariable(variableInstruction)) {
                 //create def-order data dependence edge
                 PDGDataDependence dataDependence = new PDGDataDependence(entryNode, pdgNode, variableInstruction, null);
@@ -515,117 +495,48 @@ public class PDG extends Graph {
         }
     }
 
-    private void aliasSearch(PDGNode currentNode, Set<PDGNode> visitedNodes, boolean visitedFromLoopbackFlow, ReachingAliasSet reachingAliasSet) {
-        if (visitedNodes.contains(currentNode))
-            return;
-        else
-            visitedNodes.add(currentNode);
-        CFGNode currentCFGNode = currentNode.getCFGNode();
-        for (GraphEdge edge : currentCFGNode.outgoingEdges) {
-            Flow flow = (Flow) edge;
-            if (!visitedFromLoopbackFlow || flow.isFalseControlFlow()) {
+    /**
+     * Depth-first propagation of the alias sets along the control flow, driven by an explicit stack
+     * so that the depth of the search is not limited by the size of the thread stack.
+     */
+    private void aliasSearch(PDGNode firstNode, ReachingAliasSet reachingAliasSet) {
+        BitSet visitedNodes = new BitSet();
+        Deque<AliasSearchFrame> stack = new ArrayDeque<>();
+        visitedNodes.set(firstNode.getId());
+        stack.push(new AliasSearchFrame(firstNode, false, reachingAliasSet));
+        while (!stack.isEmpty()) {
+            AliasSearchFrame frame = stack.peek();
+            if (!frame.flows.hasNext()) {
+                stack.pop();
+                continue;
+            }
+            Flow flow = (Flow) frame.flows.next();
+            if (!frame.visitedFromLoopbackFlow || flow.isFalseControlFlow()) {
                 CFGNode srcCFGNode = (CFGNode) flow.src;
                 CFGNode dstCFGNode = (CFGNode) flow.dst;
                 PDGNode dstPDGNode = dstCFGNode.getPDGNode();
                 if (dstPDGNode == null) continue;
-                ReachingAliasSet reachingAliasSetCopy = reachingAliasSet.copy();
+                ReachingAliasSet reachingAliasSetCopy = frame.reachingAliasSet.copy();
                 dstPDGNode.applyReachingAliasSet(reachingAliasSetCopy);
                 dstPDGNode.updateReachingAliasSet(reachingAliasSetCopy);
-                if (!(srcCFGNode instanceof CFGBranchDoLoopNode && flow.isTrueControlFlow())) {
-                    aliasSearch(dstPDGNode, visitedNodes, flow.isLoopbackFlow(), reachingAliasSetCopy);
+                if (!(srcCFGNode instanceof CFGBranchDoLoopNode && flow.isTrueControlFlow())
+                        && !visitedNodes.get(dstPDGNode.getId())) {
+                    visitedNodes.set(dstPDGNode.getId());
+                    stack.push(new AliasSearchFrame(dstPDGNode, flow.isLoopbackFlow(), reachingAliasSetCopy));
                 }
             }
         }
     }
 
-    private void dataDependenceSearch(PDGNode initialNode, AbstractVariable variableInstruction,
-                                      PDGNode currentNode, Set<PDGNode> visitedNodes, CFGBranchNode loop) {
-        if (visitedNodes.contains(currentNode))
-            return;
-        else
-            visitedNodes.add(currentNode);
-        CFGNode currentCFGNode = currentNode.getCFGNode();
-        for (GraphEdge edge : currentCFGNode.outgoingEdges) {
-            Flow flow = (Flow) edge;
-            CFGNode srcCFGNode = (CFGNode) flow.src;
-            CFGNode dstCFGNode = (CFGNode) flow.dst;
-            if (flow.isLoopbackFlow()) {
-                if (dstCFGNode instanceof CFGBranchLoopNode)
-                    loop = (CFGBranchLoopNode) dstCFGNode;
-                if (srcCFGNode instanceof CFGBranchDoLoopNode)
-                    loop = (CFGBranchDoLoopNode) srcCFGNode;
-            }
-            PDGNode dstPDGNode = dstCFGNode.getPDGNode();
-            if (dstPDGNode != null) {
-                if (dstPDGNode.usesLocalVariable(variableInstruction)) {
-                    PDGDataDependence dataDependence = new PDGDataDependence(initialNode, dstPDGNode, variableInstruction, loop);
-                    edges.add(dataDependence);
-                }
-                if (!dstPDGNode.definesLocalVariable(variableInstruction)) {
-                    dataDependenceSearch(initialNode, variableInstruction, dstPDGNode, visitedNodes, loop);
-                } else if (initialNode.declaresLocalVariable(variableInstruction) && !initialNode.equals(dstPDGNode)) {
-                    //create def-order data dependence edge
-                    PDGDataDependence dataDependence = new PDGDataDependence(initialNode, dstPDGNode, variableInstruction, loop);
-                    edges.add(dataDependence);
-                }
-            }
-        }
-    }
+    private static class AliasSearchFrame {
+        private final Iterator<GraphEdge> flows;
+        private final boolean visitedFromLoopbackFlow;
+        private final ReachingAliasSet reachingAliasSet;
 
-    private void antiDependenceSearch(PDGNode initialNode, AbstractVariable variableInstruction,
-                                      @NotNull PDGNode currentNode, Set<PDGNode> visitedNodes, CFGBranchNode loop) {
-        if (visitedNodes.contains(currentNode))
-            return;
-        else
-            visitedNodes.add(currentNode);
-        CFGNode currentCFGNode = currentNode.getCFGNode();
-        for (GraphEdge edge : currentCFGNode.outgoingEdges) {
-            Flow flow = (Flow) edge;
-            CFGNode srcCFGNode = (CFGNode) flow.src;
-            CFGNode dstCFGNode = (CFGNode) flow.dst;
-            if (flow.isLoopbackFlow()) {
-                if (dstCFGNode instanceof CFGBranchLoopNode)
-                    loop = (CFGBranchLoopNode) dstCFGNode;
-                if (srcCFGNode instanceof CFGBranchDoLoopNode)
-                    loop = (CFGBranchDoLoopNode) srcCFGNode;
-            }
-            PDGNode dstPDGNode = dstCFGNode.getPDGNode();
-            if (dstPDGNode != null) {
-                if (dstPDGNode.definesLocalVariable(variableInstruction)) {
-                    PDGAntiDependence antiDependence = new PDGAntiDependence(initialNode, dstPDGNode, variableInstruction, loop);
-                    edges.add(antiDependence);
-                } else {
-                    antiDependenceSearch(initialNode, variableInstruction, dstPDGNode, visitedNodes, loop);
-                }
-            }
-        }
-    }
-
-    private void outputDependenceSearch(PDGNode initialNode, AbstractVariable variableInstruction,
-                                        PDGNode currentNode, Set<PDGNode> visitedNodes, CFGBranchNode loop) {
-        if (visitedNodes.contains(currentNode))
-            return;
-        else
-            visitedNodes.add(currentNode);
-        CFGNode currentCFGNode = currentNode.getCFGNode();
-        for (GraphEdge edge : currentCFGNode.outgoingEdges) {
-            Flow flow = (Flow) edge;
-            CFGNode srcCFGNode = (CFGNode) flow.src;
-            CFGNode dstCFGNode = (CFGNode) flow.dst;
-            if (flow.isLoopbackFlow()) {
-                if (dstCFGNode instanceof CFGBranchLoopNode)
-                    loop = (CFGBranchLoopNode) dstCFGNode;
-                if (srcCFGNode instanceof CFGBranchDoLoopNode)
-                    loop = (CFGBranchDoLoopNode) srcCFGNode;
-            }
-            if (dstCFGNode != null) {
-                PDGNode dstPDGNode = dstCFGNode.getPDGNode();
-                if (dstPDGNode.definesLocalVariable(variableInstruction)) {
-                    PDGOutputDependence outputDependence = new PDGOutputDependence(initialNode, dstPDGNode, variableInstruction, loop);
-                    edges.add(outputDependence);
-                } else
-                    outputDependenceSearch(initialNode, variableInstruction, dstPDGNode, visitedNodes, loop);
-            }
+        private AliasSearchFrame(PDGNode node, boolean visitedFromLoopbackFlow, ReachingAliasSet reachingAliasSet) {
+            this.flows = node.getCFGNode().outgoingEdges.iterator();
+            this.visitedFromLoopbackFlow = visitedFromLoopbackFlow;
+            this.reachingAliasSet = reachingAliasSet;
         }
     }
 
@@ -641,57 +552,75 @@ public class PDG extends Graph {
     private PDGNode directlyDominates(BasicBlock block) {
         CFGNode leaderCFGNode = block.getLeader();
         PDGNode leaderPDGNode = leaderCFGNode.getPDGNode();
-        for (GraphEdge edge : leaderPDGNode.incomingEdges) {
-            PDGDependence dependence = (PDGDependence) edge;
-            if (dependence instanceof PDGControlDependence) {
-                return (PDGNode) dependence.src;
-            }
-        }
-        return null;
+        return leaderPDGNode.getControlDependenceParent();
     }
 
-    private Set<BasicBlock> dominatedBlocks(BasicBlock block) {
+    //returns the ids of the blocks dominated by the node that directly dominates the leader of the block
+    private BitSet dominatedBlocks(BasicBlock block) {
         PDGNode pdgNode = directlyDominates(block);
-        if (dominatedBlockMap.containsKey(pdgNode)) {
-            return dominatedBlockMap.get(pdgNode);
-        } else {
-            Set<BasicBlock> dominatedBlocks = null;
-            if (pdgNode != null) {
-                dominatedBlocks = dominatedBlocks(pdgNode);
+        if (pdgNode == null)
+            return new BitSet();
+        return dominatedBlocks(pdgNode);
+    }
+
+    private BitSet dominatedBlocks(PDGNode branchNode) {
+        BitSet dominatedBlocks = dominatedBlockMap.get(branchNode);
+        if (dominatedBlocks == null) {
+            dominatedBlocks = new BitSet();
+            for (GraphEdge edge : branchNode.outgoingEdges) {
+                PDGDependence dependence = (PDGDependence) edge;
+                if (dependence instanceof PDGControlDependence) {
+                    PDGNode dstNode = (PDGNode) dependence.dst;
+                    BasicBlock dstBlock = dstNode.getBasicBlock();
+                    dominatedBlocks.set(dstBlock.getId());
+                    PDGNode dstBlockLastNode = dstBlock.getLastNode().getPDGNode();
+                    if (dstBlockLastNode instanceof PDGControlPredicateNode && !dstBlockLastNode.equals(branchNode))
+                        dominatedBlocks.or(dominatedBlocks(dstBlockLastNode));
+                }
             }
-            dominatedBlockMap.put(pdgNode, dominatedBlocks);
-            return dominatedBlocks;
+            dominatedBlockMap.put(branchNode, dominatedBlocks);
         }
+        return dominatedBlocks;
     }
 
-    private Set<BasicBlock> dominatedBlocks(PDGNode branchNode) {
-        Set<BasicBlock> dominatedBlocks = new LinkedHashSet<>();
-        for (GraphEdge edge : branchNode.outgoingEdges) {
-            PDGDependence dependence = (PDGDependence) edge;
-            if (dependence instanceof PDGControlDependence) {
-                PDGNode dstNode = (PDGNode) dependence.dst;
-                BasicBlock dstBlock = dstNode.getBasicBlock();
-                dominatedBlocks.add(dstBlock);
-                PDGNode dstBlockLastNode = dstBlock.getLastNode().getPDGNode();
-                if (dstBlockLastNode instanceof PDGControlPredicateNode && !dstBlockLastNode.equals(branchNode))
-                    dominatedBlocks.addAll(dominatedBlocks(dstBlockLastNode));
-            }
+    //returns the ids of the blocks from which the block of the node is forward reachable and that dominate it
+    private BitSet boundaryBlockIds(PDGNode node) {
+        BitSet boundaryBlockIds = new BitSet();
+        int srcBlockId = node.getBasicBlock().getId();
+        BasicBlockCFG basicBlockCFG = cfg.getBasicBlockCFG();
+        for (BasicBlock block : getBasicBlocks()) {
+            if (basicBlockCFG.forwardReachableBlockIds(block).get(srcBlockId) && dominatedBlocks(block).get(srcBlockId))
+                boundaryBlockIds.set(block.getId());
         }
-        return dominatedBlocks;
+        return boundaryBlockIds;
     }
 
     Set<BasicBlock> boundaryBlocks(PDGNode node) {
-        Set<BasicBlock> boundaryBlocks = new LinkedHashSet<>();
-        BasicBlock srcBlock = node.getBasicBlock();
-        for (BasicBlock block : getBasicBlocks()) {
-            Set<BasicBlock> forwardReachableBlocks = forwardReachableBlocks(block);
-            Set<BasicBlock> dominatedBlocks = dominatedBlocks(block);
-            Set<BasicBlock> intersection = new LinkedHashSet<>(forwardReachableBlocks);
-            intersection.retainAll(dominatedBlocks);
-            if (intersection.contains(srcBlock))
-                boundaryBlocks.add(block);
-        }
-        return boundaryBlocks;
+        return toBasicBlocks(boundaryBlockIds(node));
+    }
+
+    /**
+     * Returns the blocks that are boundary blocks of every node in {@code nodes}.
+     */
+    Set<BasicBlock> commonBoundaryBlocks(Collection<PDGNode> nodes) {
+        BitSet commonBoundaryBlockIds = null;
+        for (PDGNode node : nodes) {
+            BitSet boundaryBlockIds = boundaryBlockIds(node);
+            if (commonBoundaryBlockIds == null)
+                commonBoundaryBlockIds = boundaryBlockIds;
+            else
+                commonBoundaryBlockIds.and(boundaryBlockIds);
+        }
+        return commonBoundaryBlockIds == null ? new LinkedHashSet<>() : toBasicBlocks(commonBoundaryBlockIds);
+    }
+
+    private Set<BasicBlock> toBasicBlocks(BitSet blockIds) {
+        Set<BasicBlock> basicBlocks = new LinkedHashSet<>();
+        List<BasicBlock> allBasicBlocks = getBasicBlocks();
+        for (int id = blockIds.nextSetBit(0); id >= 0; id = blockIds.nextSetBit(id + 1)) {
+            basicBlocks.add(allBasicBlocks.get(id - 1));
+        }
+        return basicBlocks;
     }
 
     Set<PDGNode> blockBasedRegion(BasicBlock block) {
@@ -0,0 +1,99 @@
+package org.jetbrains.research.intellijdeodorant.core.ast.decomposition.cfg;
+
+import java.util.*;
+
+/**
+ * Index of the dependences of a complete {@link PDG}, so that slicing can visit the dependences of the nodes it is
+ * interested in instead of scanning every edge and node of the method.
+ * The incoming and outgoing dependences of each node are grouped by {@link PDGDependenceType} and kept in the order
+ * they were added to the PDG. The nodes defining each variable are kept in the order of the PDG nodes.
+ */
+class PDGDependenceIndex {
+    private static final PDGDependence[] NO_DEPENDENCES = new PDGDependence[0];
+
+    private final Map<GraphEdge, Integer> edgeIndices = new HashMap<>();
+    private final Map<PDGNode, PDGDependence[][]> incomingDependences = new HashMap<>();
+    private final Map<PDGNode, PDGDependence[][]> outgoingDependences = new HashMap<>();
+    private final Map<AbstractVariable, Set<PDGNode>> definingNodes = new HashMap<>();
+    private final Map<PlainVariable, Map<CompositeVariable, LinkedHashSet<PDGNode>>> definedAttributes = new HashMap<>();
+
+    PDGDependenceIndex(PDG pdg) {
+        Map<PDGNode, List<List<PDGDependence>>> incoming = new HashMap<>();
+        Map<PDGNode, List<List<PDGDependence>>> outgoing = new HashMap<>();
+        for (GraphEdge edge : pdg.edges) {
+            PDGDependence dependence = (PDGDependence) edge;
+            edgeIndices.put(dependence, edgeIndices.size());
+            add(incoming, (PDGNode) dependence.dst, dependence);
+            add(outgoing, (PDGNode) dependence.src, dependence);
+        }
+        toArrays(incoming, incomingDependences);
+        toArrays(outgoing, outgoingDependences);
+        for (GraphNode node : pdg.nodes) {
+            PDGNode pdgNode = (PDGNode) node;
+            for (AbstractVariable definedVariable : pdgNode.definedVariables) {
+                definingNodes.computeIfAbsent(definedVariable, key -> new LinkedHashSet<>()).add(pdgNode);
+                if (definedVariable instanceof CompositeVariable) {
+                    CompositeVariable compositeVariable = (CompositeVariable) definedVariable;
+                    definedAttributes.computeIfAbsent(compositeVariable.getInitialVariable(), key -> new LinkedHashMap<>())
+                            .computeIfAbsent(compositeVariable, key -> new LinkedHashSet<>()).add(pdgNode);
+                }
+            }
+        }
+    }
+
+    private static void add(Map<PDGNode, List<List<PDGDependence>>> dependences, PDGNode node, PDGDependence dependence) {
+        List<List<PDGDependence>> dependencesByType = dependences.get(node);
+        if (dependencesByType == null) {
+            dependencesByType = new ArrayList<>();
+            for (int i = 0; i < PDGDependenceType.values().length; i++) {
+                dependencesByType.add(new ArrayList<>());
+            }
+            dependences.put(node, dependencesByType);
+        }
+        dependencesByType.get(dependence.getType().ordinal()).add(dependence);
+    }
+
+    private static void toArrays(Map<PDGNode, List<List<PDGDependence>>> dependences, Map<PDGNode, PDGDependence[][]> arrays) {
+        for (Map.Entry<PDGNode, List<List<PDGDependence>>> entry : dependences.entrySet()) {
+            List<List<PDGDependence>> dependencesByType = entry.getValue();
+            PDGDependence[][] array = new PDGDependence[dependencesByType.size()][];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = dependencesByType.get(i).toArray(NO_DEPENDENCES);
+            }
+            arrays.put(entry.getKey(), array);
+        }
+    }
+
+    /**
+     * Returns the position of {@code dependence} among the edges of the PDG, or -1 if it does not belong to the PDG.
+     */
+    int indexOf(GraphEdge dependence) {
+        Integer index = edgeIndices.get(dependence);
+        return index != null ? index : -1;
+    }
+
+    PDGDependence[] getIncomingDependences(PDGNode node, PDGDependenceType type) {
+        PDGDependence[][] dependences = incomingDependences.get(node);
+        return dependences != null ? dependences[type.ordinal()] : NO_DEPENDENCES;
+    }
+
+    PDGDependence[] getOutgoingDependences(PDGNode node, PDGDependenceType type) {
+        PDGDependence[][] dependences = outgoingDependences.get(node);
+        return dependences != null ? dependences[type.ordinal()] : NO_DEPENDENCES;
+    }
+
+    Set<PDGNode> getDefiningNodes(AbstractVariable variable) {
+        return definingNodes.getOrDefault(variable, Collections.emptySet());
+    }
+
+    Map<CompositeVariable, LinkedHashSet<PDGNode>> getDefinedAttributes(PlainVariable reference) {
+        return definedAttributes.getOrDefault(reference, Collections.emptyMap());
+    }
+
+    /**
+     * Sorts {@code dependences} in the order they were added to the PDG.
+     */
+    void sort(List<? extends GraphEdge> dependences) {
+        dependences.sort(Comparator.comparingInt(this::indexOf));
+    }
+}
@@ -12,21 +12,7 @@ public class PDGObjectSliceUnionCollection {
         Map<CompositeVariable, Set<BasicBlock>> definedAttributeBasicBlockMap = new LinkedHashMap<>();
         for (CompositeVariable compositeVariable : definedAttributeNodeCriteriaMap.keySet()) {
             Set<PDGNode> nodeCriteria = definedAttributeNodeCriteriaMap.get(compositeVariable);
-            Map<PDGNode, Set<BasicBlock>> boundaryBlockMap = new LinkedHashMap<>();
-            for (PDGNode nodeCriterion : nodeCriteria) {
-                Set<BasicBlock> boundaryBlocks = pdg.boundaryBlocks(nodeCriterion);
-                boundaryBlockMap.put(nodeCriterion, boundaryBlocks);
-            }
-            List<Set<BasicBlock>> basicBlockListPerNodeCriterion = new ArrayList<>(boundaryBlockMap.values());
-            if (!basicBlockListPerNodeCriterion.isEmpty()) {
-                Set<BasicBlock> basicBlockIntersection = new LinkedHashSet<>(basicBlockListPerNodeCriterion.get(0));
-                for (int i = 1; i < basicBlockListPerNodeCriterion.size(); i++) {
-                    basicBlockIntersection.retainAll(basicBlockListPerNodeCriterion.get(i));
-                }
-                definedAttributeBasicBlockMap.put(compositeVariable, basicBlockIntersection);
-            } else {
-                definedAttributeBasicBlockMap.put(compositeVariable, new LinkedHashSet<>());
-            }
+            definedAttributeBasicBlockMap.put(compositeVariable, pdg.commonBoundaryBlocks(nodeCriteria));
         }
         List<Set<BasicBlock>> basicBlockListPerCompositeVariable = new ArrayList<>(definedAttributeBasicBlockMap.values());
         if (!basicBlockListPerCompositeVariable.isEmpty()) {
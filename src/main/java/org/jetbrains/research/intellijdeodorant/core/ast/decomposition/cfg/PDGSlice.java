@@ -3,8 +3,7 @@ package org.jetbrains.research.intellijdeodorant.core.ast.decomposition.cfg;
 import com.intellij.psi.PsiFile;
 import org.jetbrains.research.intellijdeodorant.core.ast.AbstractMethodDeclaration;
 
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.util.*;
 
 public class PDGSlice extends Graph {
     private final PDG pdg;
@@ -32,37 +31,30 @@ public class PDGSlice extends Graph {
         Set<PDGNode> regionNodes = pdg.blockBasedRegion(boundaryBlock);
         nodes.addAll(regionNodes);
 
-        for (GraphEdge edge : pdg.edges) {
-            PDGDependence dependence = (PDGDependence) edge;
-            if (nodes.contains(dependence.src) && nodes.contains(dependence.dst)) {
-                if (dependence instanceof PDGDataDependence) {
-                    PDGDataDependence dataDependence = (PDGDataDependence) dependence;
-                    if (dataDependence.isLoopCarried()) {
-                        PDGNode loopNode = dataDependence.getLoop().getPDGNode();
-                        if (nodes.contains(loopNode))
-                            edges.add(dataDependence);
-                    } else
-                        edges.add(dataDependence);
-                } else if (dependence instanceof PDGAntiDependence) {
-                    PDGAntiDependence antiDependence = (PDGAntiDependence) dependence;
-                    if (antiDependence.isLoopCarried()) {
-                        PDGNode loopNode = antiDependence.getLoop().getPDGNode();
-                        if (nodes.contains(loopNode))
-                            edges.add(antiDependence);
-                    } else
-                        edges.add(antiDependence);
-                } else if (dependence instanceof PDGOutputDependence) {
-                    PDGOutputDependence outputDependence = (PDGOutputDependence) dependence;
-                    if (outputDependence.isLoopCarried()) {
-                        PDGNode loopNode = outputDependence.getLoop().getPDGNode();
-                        if (nodes.contains(loopNode))
-                            edges.add(outputDependence);
-                    } else
-                        edges.add(outputDependence);
-                } else
-                    edges.add(dependence);
+        PDGDependenceIndex dependenceIndex = pdg.getDependenceIndex();
+        List<PDGDependence> regionDependences = new ArrayList<>();
+        for (PDGNode regionNode : regionNodes) {
+            for (PDGDependenceType type : PDGDependenceType.values()) {
+                for (PDGDependence dependence : dependenceIndex.getOutgoingDependences(regionNode, type)) {
+                    if (nodes.contains(dependence.dst) && isInsideRegion(dependence))
+                        regionDependences.add(dependence);
+                }
+            }
+        }
+        dependenceIndex.sort(regionDependences);
+        edges.addAll(regionDependences);
+    }
+
+    //a loop-carried dependence belongs to the region only if its loop does
+    private boolean isInsideRegion(PDGDependence dependence) {
+        if (dependence instanceof PDGAbstractDataDependence) {
+            PDGAbstractDataDependence dataDependence = (PDGAbstractDataDependence) dependence;
+            if (dataDependence.isLoopCarried()) {
+                PDGNode loopNode = dataDependence.getLoop().getPDGNode();
+                return nodes.contains(loopNode);
             }
         }
+        return true;
     }
 
     public AbstractMethodDeclaration getMethod() {
@@ -80,19 +72,19 @@ public class PDGSlice extends Graph {
     Set<PDGNode> computeSlice(PDGNode nodeCriterion, AbstractVariable localVariableCriterion) {
         Set<PDGNode> sliceNodes = new LinkedHashSet<>();
         if (nodeCriterion.definesLocalVariable(localVariableCriterion)) {
-            sliceNodes.addAll(traverseBackward(nodeCriterion, new LinkedHashSet<>()));
+            sliceNodes.addAll(traverseBackward(nodeCriterion));
         } else if (nodeCriterion.usesLocalVariable(localVariableCriterion)) {
             Set<PDGNode> defNodes = getDefNodes(nodeCriterion, localVariableCriterion);
             for (PDGNode defNode : defNodes) {
-                sliceNodes.addAll(traverseBackward(defNode, new LinkedHashSet<>()));
+                sliceNodes.addAll(traverseBackward(defNode));
             }
-            sliceNodes.addAll(traverseBackward(nodeCriterion, new LinkedHashSet<>()));
+            sliceNodes.addAll(traverseBackward(nodeCriterion));
         }
         return sliceNodes;
     }
 
     Set<PDGNode> computeSlice(PDGNode nodeCriterion) {
-        return new LinkedHashSet<>(traverseBackward(nodeCriterion, new LinkedHashSet<>()));
+        return new LinkedHashSet<>(traverseBackward(nodeCriterion));
     }
 
     private Set<PDGNode> getDefNodes(PDGNode node, AbstractVariable localVariable) {
@@ -110,17 +102,28 @@ public class PDGSlice extends Graph {
         return defNodes;
     }
 
-    private Set<PDGNode> traverseBackward(PDGNode node, Set<PDGNode> visitedNodes) {
+    private Set<PDGNode> traverseBackward(PDGNode node) {
         Set<PDGNode> sliceNodes = new LinkedHashSet<>();
+        BitSet visitedNodeIds = new BitSet();
+        Deque<Iterator<GraphEdge>> stack = new ArrayDeque<>();
         sliceNodes.add(node);
-        visitedNodes.add(node);
-        for (GraphEdge edge : node.incomingEdges) {
-            PDGDependence dependence = (PDGDependence) edge;
+        visitedNodeIds.set(node.getId());
+        stack.push(node.incomingEdges.iterator());
+        while (!stack.isEmpty()) {
+            Iterator<GraphEdge> incomingEdges = stack.peek();
+            if (!incomingEdges.hasNext()) {
+                stack.pop();
+                continue;
+            }
+            PDGDependence dependence = (PDGDependence) incomingEdges.next();
             if (edges.contains(dependence) && !(dependence instanceof PDGAntiDependence)
                     && !(dependence instanceof PDGOutputDependence)) {
                 PDGNode srcPDGNode = (PDGNode) dependence.src;
-                if (!visitedNodes.contains(srcPDGNode))
-                    sliceNodes.addAll(traverseBackward(srcPDGNode, visitedNodes));
+                if (!visitedNodeIds.get(srcPDGNode.getId())) {
+                    sliceNodes.add(srcPDGNode);
+                    visitedNodeIds.set(srcPDGNode.getId());
+                    stack.push(srcPDGNode.incomingEdges.iterator());
+                }
             }
         }
         return sliceNodes;
@@ -0,0 +1,78 @@
+package org.jetbrains.research.intellijdeodorant.core.ast.decomposition.cfg;
+
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.research.intellijdeodorant.core.ast.FieldObject;
+
+import java.util.*;
+
+/**
+ * Bounded LRU cache of the slice groups computed from the {@link PDG} of a method.
+ * An entry is reused only while the file containing the method is not modified, no declaration of the project
+ * changes and the set of fields accessed inside the method stays the same. Editing the body of a method
+ * invalidates the slices of the methods of its file only.
+ */
+public class PDGSliceCache {
+    private static final int DEFAULT_CAPACITY = 4096;
+
+    private final Map<PsiMethod, Entry> entries;
+
+    public PDGSliceCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public PDGSliceCache(int capacity) {
+        this.entries = new LinkedHashMap<PsiMethod, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PsiMethod, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the slice groups cached for {@code method}, or {@code null} if the method was changed since they were computed.
+     */
+    public synchronized List<ASTSliceGroup> get(PsiMethod method, Set<FieldObject> accessedFields) {
+        Entry entry = entries.get(method);
+        if (entry == null) {
+            return null;
+        }
+        if (!method.isValid() || entry.fileStamp != fileStamp(method) || entry.structureStamp != structureStamp(method)
+                || !entry.accessedFields.equals(accessedFields)) {
+            entries.remove(method);
+            return null;
+        }
+        return entry.sliceGroups;
+    }
+
+    public synchronized void put(PsiMethod method, Set<FieldObject> accessedFields, List<ASTSliceGroup> sliceGroups) {
+        entries.put(method, new Entry(fileStamp(method), structureStamp(method), new HashSet<>(accessedFields),
+                Collections.unmodifiableList(new ArrayList<>(sliceGroups))));
+    }
+
+    private static long fileStamp(PsiMethod method) {
+        PsiFile file = method.getContainingFile();
+        return file != null ? file.getModificationStamp() : -1;
+    }
+
+    //changes outside of code blocks may change the supertypes and members the PDG nodes were resolved against
+    private static long structureStamp(PsiMethod method) {
+        return PsiModificationTracker.SERVICE.getInstance(method.getProject()).getOutOfCodeBlockModificationCount();
+    }
+
+    private static class Entry {
+        private final long fileStamp;
+        private final long structureStamp;
+        private final Set<FieldObject> accessedFields;
+        private final List<ASTSliceGroup> sliceGroups;
+
+        private Entry(long fileStamp, long structureStamp, Set<FieldObject> accessedFields, List<ASTSliceGroup> sliceGroups) {
+            this.fileStamp = fileStamp;
+            this.structureStamp = structureStamp;
+            this.accessedFields = accessedFields;
+            this.sliceGroups = sliceGroups;
+        }
+    }
+}
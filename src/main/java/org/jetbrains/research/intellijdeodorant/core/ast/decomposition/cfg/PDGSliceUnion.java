@@ -5,10 +5,7 @@ import com.intellij.psi.PsiNewExpression;
 import com.intellij.psi.PsiVariable;
 import org.jetbrains.research.intellijdeodorant.core.ast.AbstractMethodDeclaration;
 
-import java.util.LinkedHashSet;
-import java.util.Map;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.*;
 
 public class PDGSliceUnion {
     private final PDG pdg;
@@ -97,8 +94,16 @@ public class PDGSliceUnion {
         this.passedParameters = new LinkedHashSet<>();
         Set<PDGNode> nCD = new LinkedHashSet<>();
         Set<PDGNode> nDD = new LinkedHashSet<>();
-        for (GraphEdge edge : pdg.edges) {
-            PDGDependence dependence = (PDGDependence) edge;
+        //only the dependences entering or leaving the slice can connect it with the remaining nodes
+        PDGDependenceIndex dependenceIndex = pdg.getDependenceIndex();
+        List<PDGDependence> sliceBoundaryDependences = new ArrayList<>();
+        for (PDGNode sliceNode : sliceNodes) {
+            sliceBoundaryDependences.addAll(Arrays.asList(dependenceIndex.getIncomingDependences(sliceNode, PDGDependenceType.DATA)));
+            sliceBoundaryDependences.addAll(Arrays.asList(dependenceIndex.getOutgoingDependences(sliceNode, PDGDependenceType.DATA)));
+            sliceBoundaryDependences.addAll(Arrays.asList(dependenceIndex.getOutgoingDependences(sliceNode, PDGDependenceType.CONTROL)));
+        }
+        dependenceIndex.sort(sliceBoundaryDependences);
+        for (PDGDependence dependence : sliceBoundaryDependences) {
             PDGNode srcPDGNode = (PDGNode) dependence.src;
             PDGNode dstPDGNode = (PDGNode) dependence.dst;
             if (dependence instanceof PDGDataDependence) {
@@ -118,30 +123,20 @@ public class PDGSliceUnion {
         for (PDGNode p : nCD) {
             for (AbstractVariable usedVariable : p.usedVariables) {
                 Set<PDGNode> pSliceNodes = subgraph.computeSlice(p, usedVariable);
-                for (GraphNode node : pdg.nodes) {
-                    PDGNode q = (PDGNode) node;
-                    if (pSliceNodes.contains(q) || q.equals(p))
-                        controlIndispensableNodes.add(q);
-                }
+                addNodesOfPDG(pSliceNodes, controlIndispensableNodes);
+                addNodesOfPDG(Collections.singleton(p), controlIndispensableNodes);
             }
             if (p.usedVariables.isEmpty()) {
                 Set<PDGNode> pSliceNodes = subgraph.computeSlice(p);
-                for (GraphNode node : pdg.nodes) {
-                    PDGNode q = (PDGNode) node;
-                    if (pSliceNodes.contains(q) || q.equals(p))
-                        controlIndispensableNodes.add(q);
-                }
+                addNodesOfPDG(pSliceNodes, controlIndispensableNodes);
+                addNodesOfPDG(Collections.singleton(p), controlIndispensableNodes);
             }
         }
         Set<PDGNode> dataIndispensableNodes = new LinkedHashSet<>();
         for (PDGNode p : nDD) {
             for (AbstractVariable definedVariable : p.definedVariables) {
                 Set<PDGNode> pSliceNodes = subgraph.computeSlice(p, definedVariable);
-                for (GraphNode node : pdg.nodes) {
-                    PDGNode q = (PDGNode) node;
-                    if (pSliceNodes.contains(q))
-                        dataIndispensableNodes.add(q);
-                }
+                addNodesOfPDG(pSliceNodes, dataIndispensableNodes);
             }
         }
         this.indispensableNodes = new TreeSet<>();
@@ -170,6 +165,14 @@ public class PDGSliceUnion {
         }
     }
 
+    //the collected nodes end up in the sorted set of indispensable nodes, so the order of the PDG nodes does not matter
+    private void addNodesOfPDG(Collection<PDGNode> nodes, Set<PDGNode> pdgNodes) {
+        for (PDGNode node : nodes) {
+            if (pdg.getNodes().contains(node))
+                pdgNodes.add(node);
+        }
+    }
+
     private boolean isNestedInside(PDGNode nestedNode, PDGNode parentNode) {
         for (GraphEdge edge : nestedNode.incomingEdges) {
             PDGDependence dependence = (PDGDependence) edge;
@@ -288,16 +291,13 @@ public class PDGSliceUnion {
     }
 
     private boolean isControlDependentOnSliceNode(PDGNode node) {
-        for (GraphEdge edge : node.incomingEdges) {
-            PDGDependence dependence = (PDGDependence) edge;
-            if (dependence instanceof PDGControlDependence) {
-                PDGControlDependence controlDependence = (PDGControlDependence) dependence;
-                PDGNode srcPDGNode = (PDGNode) controlDependence.src;
-                if (sliceNodes.contains(srcPDGNode))
-                    return true;
-                else
-                    return isControlDependentOnSliceNode(srcPDGNode);
-            }
+        BitSet visitedNodes = new BitSet();
+        PDGNode srcPDGNode = node.getControlDependenceParent();
+        while (srcPDGNode != null && !visitedNodes.get(srcPDGNode.getId())) {
+            if (sliceNodes.contains(srcPDGNode))
+                return true;
+            visitedNodes.set(srcPDGNode.getId());
+            srcPDGNode = srcPDGNode.getControlDependenceParent();
         }
         return false;
     }
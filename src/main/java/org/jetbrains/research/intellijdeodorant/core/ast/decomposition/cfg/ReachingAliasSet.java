@@ -7,8 +7,13 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
+/**
+ * Alias sets reaching a node during the alias analysis of a {@link PDG}.
+ * The list of alias sets and the sets themselves are never modified once shared, an update replaces them instead.
+ * Hence {@link #copy()} shares the alias sets with the copy, and only the alias sets changed by a node are duplicated.
+ */
 class ReachingAliasSet {
-    private final List<LinkedHashSet<PsiVariable>> aliasSets;
+    private List<LinkedHashSet<PsiVariable>> aliasSets;
 
     ReachingAliasSet() {
         this.aliasSets = new ArrayList<>();
@@ -19,45 +24,62 @@ class ReachingAliasSet {
     }
 
     void insertAlias(PsiVariable leftHandSideReference, PsiVariable rightHandSideReference) {
+        List<LinkedHashSet<PsiVariable>> updatedAliasSets = null;
         boolean rightHandSideReferenceFound = false;
-        for (LinkedHashSet<PsiVariable> aliasSet : aliasSets) {
+        for (int i = 0; i < aliasSets.size(); i++) {
+            LinkedHashSet<PsiVariable> aliasSet = aliasSets.get(i);
+            LinkedHashSet<PsiVariable> updatedAliasSet = aliasSet;
             if (aliasSet.contains(rightHandSideReference)) {
                 rightHandSideReferenceFound = true;
-                aliasSet.add(leftHandSideReference);
+                if (!aliasSet.contains(leftHandSideReference)) {
+                    updatedAliasSet = new LinkedHashSet<>(aliasSet);
+                    updatedAliasSet.add(leftHandSideReference);
+                }
+            } else if (aliasSet.contains(leftHandSideReference)) {
+                updatedAliasSet = new LinkedHashSet<>(aliasSet);
+                updatedAliasSet.remove(leftHandSideReference);
+            }
+            if (updatedAliasSet != aliasSet || updatedAliasSet.size() == 1) {
+                if (updatedAliasSets == null)
+                    updatedAliasSets = new ArrayList<>(aliasSets.subList(0, i));
+                if (updatedAliasSet.size() > 1)
+                    updatedAliasSets.add(updatedAliasSet);
+            } else if (updatedAliasSets != null) {
+                updatedAliasSets.add(aliasSet);
             }
         }
         if (!rightHandSideReferenceFound) {
             LinkedHashSet<PsiVariable> aliasSet = new LinkedHashSet<>();
             aliasSet.add(leftHandSideReference);
             aliasSet.add(rightHandSideReference);
-            aliasSets.add(aliasSet);
-        }
-        List<LinkedHashSet<PsiVariable>> aliasSetsToBeRemoved = new ArrayList<>();
-        for (LinkedHashSet<PsiVariable> aliasSet : aliasSets) {
-            if (aliasSet.contains(leftHandSideReference)) {
-                if (!aliasSet.contains(rightHandSideReference))
-                    aliasSet.remove(leftHandSideReference);
-                if (aliasSet.size() == 1)
-                    aliasSetsToBeRemoved.add(aliasSet);
+            if (aliasSet.size() > 1) {
+                if (updatedAliasSets == null)
+                    updatedAliasSets = new ArrayList<>(aliasSets);
+                updatedAliasSets.add(aliasSet);
             }
         }
-        for (LinkedHashSet<PsiVariable> aliasSet : aliasSetsToBeRemoved) {
-            aliasSets.remove(aliasSet);
-        }
+        if (updatedAliasSets != null)
+            aliasSets = updatedAliasSets;
     }
 
     void removeAlias(PsiVariable leftHandSideReference) {
-        List<LinkedHashSet<PsiVariable>> aliasSetsToBeRemoved = new ArrayList<>();
-        for (LinkedHashSet<PsiVariable> aliasSet : aliasSets) {
+        List<LinkedHashSet<PsiVariable>> updatedAliasSets = null;
+        for (int i = 0; i < aliasSets.size(); i++) {
+            LinkedHashSet<PsiVariable> aliasSet = aliasSets.get(i);
             if (aliasSet.contains(leftHandSideReference)) {
-                aliasSet.remove(leftHandSideReference);
-                if (aliasSet.size() == 1)
-                    aliasSetsToBeRemoved.add(aliasSet);
+                if (updatedAliasSets == null)
+                    updatedAliasSets = new ArrayList<>(aliasSets.subList(0, i));
+                if (aliasSet.size() > 2) {
+                    LinkedHashSet<PsiVariable> updatedAliasSet = new LinkedHashSet<>(aliasSet);
+                    updatedAliasSet.remove(leftHandSideReference);
+                    updatedAliasSets.add(updatedAliasSet);
+                }
+            } else if (updatedAliasSets != null) {
+                updatedAliasSets.add(aliasSet);
             }
         }
-        for (LinkedHashSet<PsiVariable> aliasSet : aliasSetsToBeRemoved) {
-            aliasSets.remove(aliasSet);
-        }
+        if (updatedAliasSets != null)
+            aliasSets = updatedAliasSets;
     }
 
     boolean containsAlias(AbstractVariable variable) {
@@ -92,12 +114,7 @@ class ReachingAliasSet {
     }
 
     ReachingAliasSet copy() {
-        List<LinkedHashSet<PsiVariable>> aliasSetsCopy = new ArrayList<>();
-        for (LinkedHashSet<PsiVariable> aliasSet : aliasSets) {
-            LinkedHashSet<PsiVariable> aliasSetCopy = new LinkedHashSet<>(aliasSet);
-            aliasSetsCopy.add(aliasSetCopy);
-        }
-        return new ReachingAliasSet(aliasSetsCopy);
+        return new ReachingAliasSet(aliasSets);
     }
 
     public String toString() {
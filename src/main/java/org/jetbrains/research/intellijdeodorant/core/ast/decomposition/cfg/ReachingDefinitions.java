@@ -0,0 +1,264 @@
+package org.jetbrains.research.intellijdeodorant.core.ast.decomposition.cfg;
+
+import java.util.*;
+
+/**
+ * Worklist solver deriving the data, anti and output dependences of a {@link PDG} from the control flow of its nodes.
+ * The definitions and uses of a variable are propagated together as bit vectors over the flows,
+ * and a propagation stops at the nodes that define the variable again.
+ * A dependence reached through a loopback flow is carried by the loop of that flow. The nodes reachable
+ * without crossing a loopback flow are solved first, so a dependence is attributed to the last loop crossed
+ * on a path crossing the fewest loopback flows.
+ */
+class ReachingDefinitions {
+    private static final int DATA = 1;
+    private static final int OUTPUT = 2;
+    private static final int ANTI = 4;
+
+    private final Set<GraphEdge> edges;
+    private final List<PDGNode> nodes = new ArrayList<>();
+    private final Map<PDGNode, Integer> nodeIndices = new HashMap<>();
+    private final List<int[]> successors = new ArrayList<>();
+    //the loop entered by each successor flow if it is a loopback flow, otherwise null
+    private final List<CFGBranchNode[]> successorLoops = new ArrayList<>();
+    private final Map<AbstractVariable, BitSet> definingNodes = new HashMap<>();
+    private final Map<AbstractVariable, BitSet> usingNodes = new HashMap<>();
+    private final Map<AbstractVariable, Sources> sourcesOfVariables = new LinkedHashMap<>();
+
+    ReachingDefinitions(Collection<GraphNode> pdgNodes, Set<GraphEdge> edges) {
+        this.edges = edges;
+        for (GraphNode node : pdgNodes) {
+            indexOf((PDGNode) node);
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            PDGNode node = nodes.get(i);
+            List<Integer> nodeSuccessors = new ArrayList<>();
+            List<CFGBranchNode> nodeSuccessorLoops = new ArrayList<>();
+            for (GraphEdge edge : node.getCFGNode().outgoingEdges) {
+                Flow flow = (Flow) edge;
+                PDGNode dstPDGNode = ((CFGNode) flow.dst).getPDGNode();
+                if (dstPDGNode != null) {
+                    nodeSuccessors.add(indexOf(dstPDGNode));
+                    nodeSuccessorLoops.add(loopOf(flow));
+                }
+            }
+            successors.add(nodeSuccessors.stream().mapToInt(Integer::intValue).toArray());
+            successorLoops.add(nodeSuccessorLoops.toArray(new CFGBranchNode[0]));
+            for (AbstractVariable variable : node.definedVariables) {
+                definingNodes.computeIfAbsent(variable, key -> new BitSet()).set(i);
+            }
+            for (AbstractVariable variable : node.usedVariables) {
+                usingNodes.computeIfAbsent(variable, key -> new BitSet()).set(i);
+            }
+        }
+    }
+
+    private int indexOf(PDGNode node) {
+        Integer index = nodeIndices.get(node);
+        if (index == null) {
+            index = nodes.size();
+            nodeIndices.put(node, index);
+            nodes.add(node);
+        }
+        return index;
+    }
+
+    private static CFGBranchNode loopOf(Flow flow) {
+        CFGBranchNode loop = null;
+        if (flow.isLoopbackFlow()) {
+            if (flow.dst instanceof CFGBranchLoopNode)
+                loop = (CFGBranchLoopNode) flow.dst;
+            if (flow.src instanceof CFGBranchDoLoopNode)
+                loop = (CFGBranchDoLoopNode) flow.src;
+        }
+        return loop;
+    }
+
+    /**
+     * Adds the variables defined and used by {@code node} as sources of data, output and anti dependences.
+     */
+    void addNode(PDGNode node) {
+        int index = indexOf(node);
+        for (AbstractVariable variable : node.definedVariables) {
+            getSources(variable).add(node, index, DATA | OUTPUT);
+        }
+        for (AbstractVariable variable : node.usedVariables) {
+            getSources(variable).add(node, index, ANTI);
+        }
+    }
+
+    /**
+     * Adds a definition of {@code variable} by the method entry node, reaching the nodes that follow {@code firstNode}.
+     */
+    void addEntryDefinition(PDGMethodEntryNode entryNode, AbstractVariable variable, PDGNode firstNode) {
+        getSources(variable).add(entryNode, indexOf(firstNode), DATA);
+    }
+
+    private Sources getSources(AbstractVariable variable) {
+        return sourcesOfVariables.computeIfAbsent(variable, key -> new Sources());
+    }
+
+    void createDependencies() {
+        for (Map.Entry<AbstractVariable, Sources> entry : sourcesOfVariables.entrySet()) {
+            new Propagation(entry.getKey(), entry.getValue()).run();
+        }
+    }
+
+    private static class Sources {
+        private final List<PDGNode> nodes = new ArrayList<>();
+        private final IntList startNodes = new IntList();
+        private final IntList roles = new IntList();
+
+        private void add(PDGNode node, int startNode, int role) {
+            int last = nodes.size() - 1;
+            //a node defining and using the same variable reaches the same nodes in both roles
+            if (last >= 0 && nodes.get(last) == node && startNodes.get(last) == startNode) {
+                roles.set(last, roles.get(last) | role);
+            } else {
+                nodes.add(node);
+                startNodes.add(startNode);
+                roles.add(role);
+            }
+        }
+    }
+
+    private static class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        private int get(int index) {
+            return values[index];
+        }
+
+        private void set(int index, int value) {
+            values[index] = value;
+        }
+    }
+
+    private static class LoopbackFlow {
+        private final int dst;
+        private final CFGBranchNode loop;
+        private final BitSet sources;
+
+        private LoopbackFlow(int dst, CFGBranchNode loop, BitSet sources) {
+            this.dst = dst;
+            this.loop = loop;
+            this.sources = sources;
+        }
+    }
+
+    private class Propagation {
+        private final AbstractVariable variable;
+        private final Sources sources;
+        private final BitSet defining;
+        private final BitSet using;
+        //sources that have reached each node
+        private final BitSet[] visited = new BitSet[nodes.size()];
+        //sources that have reached each node but were not propagated further yet, grouped by loop
+        private final List<Map<CFGBranchNode, BitSet>> pending = new ArrayList<>(Collections.nCopies(nodes.size(), null));
+        private final ArrayDeque<Integer> worklist = new ArrayDeque<>();
+        private List<LoopbackFlow> loopbackFlows = new ArrayList<>();
+
+        private Propagation(AbstractVariable variable, Sources sources) {
+            this.variable = variable;
+            this.sources = sources;
+            this.defining = definingNodes.getOrDefault(variable, new BitSet());
+            this.using = usingNodes.getOrDefault(variable, new BitSet());
+        }
+
+        private void run() {
+            for (int source = 0; source < sources.nodes.size(); source++) {
+                BitSet startSources = new BitSet();
+                startSources.set(source);
+                visit(sources.startNodes.get(source), null, startSources);
+            }
+            while (true) {
+                while (!worklist.isEmpty()) {
+                    propagate(worklist.poll());
+                }
+                if (loopbackFlows.isEmpty())
+                    break;
+                //the sources crossing a loopback flow are propagated after all the nodes reachable without one
+                List<LoopbackFlow> crossedFlows = loopbackFlows;
+                loopbackFlows = new ArrayList<>();
+                for (LoopbackFlow flow : crossedFlows) {
+                    visit(flow.dst, flow.loop, flow.sources);
+                }
+            }
+        }
+
+        private void visit(int node, CFGBranchNode loop, BitSet reachingSources) {
+            BitSet visitedSources = visited[node];
+            if (visitedSources == null) {
+                visitedSources = new BitSet();
+                visited[node] = visitedSources;
+            }
+            BitSet newSources = (BitSet) reachingSources.clone();
+            newSources.andNot(visitedSources);
+            if (newSources.isEmpty())
+                return;
+            visitedSources.or(newSources);
+            Map<CFGBranchNode, BitSet> pendingSources = pending.get(node);
+            if (pendingSources == null) {
+                pendingSources = new LinkedHashMap<>();
+                pending.set(node, pendingSources);
+                worklist.add(node);
+            }
+            pendingSources.computeIfAbsent(loop, key -> new BitSet()).or(newSources);
+        }
+
+        private void propagate(int node) {
+            Map<CFGBranchNode, BitSet> pendingSources = pending.get(node);
+            pending.set(node, null);
+            int[] nodeSuccessors = successors.get(node);
+            CFGBranchNode[] nodeSuccessorLoops = successorLoops.get(node);
+            for (Map.Entry<CFGBranchNode, BitSet> entry : pendingSources.entrySet()) {
+                for (int i = 0; i < nodeSuccessors.length; i++) {
+                    int successor = nodeSuccessors[i];
+                    CFGBranchNode loop = nodeSuccessorLoops[i] != null ? nodeSuccessorLoops[i] : entry.getKey();
+                    createDependencies(entry.getValue(), successor, loop);
+                    if (!defining.get(successor)) {
+                        if (nodeSuccessorLoops[i] != null) {
+                            loopbackFlows.add(new LoopbackFlow(successor, loop, entry.getValue()));
+                        } else {
+                            visit(successor, loop, entry.getValue());
+                        }
+                    }
+                }
+            }
+        }
+
+        private void createDependencies(BitSet reachingSources, int node, CFGBranchNode loop) {
+            boolean defines = defining.get(node);
+            boolean uses = using.get(node);
+            if (!defines && !uses)
+                return;
+            PDGNode dstPDGNode = nodes.get(node);
+            for (int source = reachingSources.nextSetBit(0); source >= 0; source = reachingSources.nextSetBit(source + 1)) {
+                PDGNode srcPDGNode = sources.nodes.get(source);
+                int role = sources.roles.get(source);
+                if ((role & DATA) != 0) {
+                    if (uses) {
+                        edges.add(new PDGDataDependence(srcPDGNode, dstPDGNode, variable, loop));
+                    }
+                    if (defines && srcPDGNode.declaresLocalVariable(variable) && !srcPDGNode.equals(dstPDGNode)) {
+                        //create def-order data dependence edge
+                        edges.add(new PDGDataDependence(srcPDGNode, dstPDGNode, variable, loop));
+                    }
+                }
+                if ((role & OUTPUT) != 0 && defines) {
+                    edges.add(new PDGOutputDependence(srcPDGNode, dstPDGNode, variable, loop));
+                }
+                if ((role & ANTI) != 0 && defines) {
+                    edges.add(new PDGAntiDependence(srcPDGNode, dstPDGNode, variable, loop));
+                }
+            }
+        }
+    }
+}
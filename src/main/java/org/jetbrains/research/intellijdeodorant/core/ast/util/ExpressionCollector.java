@@ -0,0 +1,91 @@
+package org.jetbrains.research.intellijdeodorant.core.ast.util;
+
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiStatement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the expressions of a statement or an expression that are processed by
+ * {@link org.jetbrains.research.intellijdeodorant.core.ast.decomposition.AbstractMethodFragment}.
+ * The subtree is traversed once and every expression is put in all the buckets it belongs to,
+ * in the same order as the corresponding {@link ExpressionExtractor} method would return them.
+ */
+public class ExpressionCollector {
+    private static final ExpressionInstanceChecker VARIABLE = new InstanceOfVariable();
+    private static final ExpressionInstanceChecker ASSIGNMENT = new InstanceOfAssignment();
+    private static final ExpressionInstanceChecker POSTFIX_EXPRESSION = new InstanceOfPostfixExpression();
+    private static final ExpressionInstanceChecker PREFIX_EXPRESSION = new InstanceOfPrefixExpression();
+    private static final ExpressionInstanceChecker METHOD_INVOCATION = new InstanceOfMethodInvocation();
+    private static final ExpressionInstanceChecker CLASS_INSTANCE_CREATION = new InstanceOfClassInstanceCreation();
+    private static final ExpressionInstanceChecker ARRAY_CREATION = new InstanceOfArrayCreation();
+    private static final ExpressionInstanceChecker LITERAL = new InstanceOfLiteral();
+
+    private final List<PsiExpression> variableInstructions = new ArrayList<>();
+    private final List<PsiExpression> assignments = new ArrayList<>();
+    private final List<PsiExpression> postfixExpressions = new ArrayList<>();
+    private final List<PsiExpression> prefixExpressions = new ArrayList<>();
+    private final List<PsiExpression> methodInvocations = new ArrayList<>();
+    private final List<PsiExpression> classInstanceCreations = new ArrayList<>();
+    private final List<PsiExpression> arrayCreations = new ArrayList<>();
+    private final List<PsiExpression> literals = new ArrayList<>();
+
+    public ExpressionCollector(PsiStatement statement) {
+        classify(new ExpressionExtractor().getAllExpressions(statement));
+    }
+
+    public ExpressionCollector(PsiExpression expression) {
+        classify(new ExpressionExtractor().getAllExpressions(expression));
+    }
+
+    private void classify(List<PsiExpression> expressions) {
+        for (PsiExpression expression : expressions) {
+            addIfInstanceOf(VARIABLE, expression, variableInstructions);
+            addIfInstanceOf(ASSIGNMENT, expression, assignments);
+            addIfInstanceOf(POSTFIX_EXPRESSION, expression, postfixExpressions);
+            addIfInstanceOf(PREFIX_EXPRESSION, expression, prefixExpressions);
+            addIfInstanceOf(METHOD_INVOCATION, expression, methodInvocations);
+            addIfInstanceOf(CLASS_INSTANCE_CREATION, expression, classInstanceCreations);
+            addIfInstanceOf(ARRAY_CREATION, expression, arrayCreations);
+            addIfInstanceOf(LITERAL, expression, literals);
+        }
+    }
+
+    private static void addIfInstanceOf(ExpressionInstanceChecker instanceChecker, PsiExpression expression, List<PsiExpression> bucket) {
+        if (instanceChecker.instanceOf(expression))
+            bucket.add(expression);
+    }
+
+    public List<PsiExpression> getVariableInstructions() {
+        return variableInstructions;
+    }
+
+    public List<PsiExpression> getAssignments() {
+        return assignments;
+    }
+
+    public List<PsiExpression> getPostfixExpressions() {
+        return postfixExpressions;
+    }
+
+    public List<PsiExpression> getPrefixExpressions() {
+        return prefixExpressions;
+    }
+
+    public List<PsiExpression> getMethodInvocations() {
+        return methodInvocations;
+    }
+
+    public List<PsiExpression> getClassInstanceCreations() {
+        return classInstanceCreations;
+    }
+
+    public List<PsiExpression> getArrayCreations() {
+        return arrayCreations;
+    }
+
+    public List<PsiExpression> getLiterals() {
+        return literals;
+    }
+}
@@ -174,6 +174,18 @@ public class ExpressionExtractor {
         return getExpressions(expression);
     }
 
+    // returns every visited expression, so that a single traversal can be classified by several checkers
+    List<PsiExpression> getAllExpressions(PsiStatement statement) {
+        instanceChecker = e -> true;
+        return getExpressions(statement);
+    }
+
+    // returns every visited expression, so that a single traversal can be classified by several checkers
+    List<PsiExpression> getAllExpressions(PsiExpression expression) {
+        instanceChecker = e -> true;
+        return getExpressions(expression);
+    }
+
     private List<PsiExpression> getExpressions(PsiElement[] elements) {
         List<PsiExpression> result = new ArrayList<>();
         for (PsiElement element : elements) {
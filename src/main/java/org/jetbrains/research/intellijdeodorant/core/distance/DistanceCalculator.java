@@ -1,26 +1,43 @@
 package org.jetbrains.research.intellijdeodorant.core.distance;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
 
 class DistanceCalculator {
 
-    public static double getDistance(Set<String> set1, Set<String> set2) {
-        if (set1.isEmpty() && set2.isEmpty())
+    /**
+     * Jaccard distance of two entity sets encoded by {@link #toBitSets(List)}.
+     * Cardinalities are passed in so that the distance is computed with popcounts only, without allocating.
+     */
+    static double getDistance(long[] bits1, int cardinality1, long[] bits2, int cardinality2) {
+        if (cardinality1 == 0 && cardinality2 == 0)
             return 1.0;
-        return 1.0 - (double) intersection(set1, set2).size() / (double) union(set1, set2).size();
+        int intersection = 0;
+        int length = Math.min(bits1.length, bits2.length);
+        for (int i = 0; i < length; i++) {
+            intersection += Long.bitCount(bits1[i] & bits2[i]);
+        }
+        int union = cardinality1 + cardinality2 - intersection;
+        return 1.0 - (double) intersection / (double) union;
     }
 
-    private static Set<String> union(Set<String> set1, Set<String> set2) {
-        Set<String> set = new HashSet<>();
-        set.addAll(set1);
-        set.addAll(set2);
-        return set;
-    }
-
-    public static Set<String> intersection(Set<String> set1, Set<String> set2) {
-        Set<String> set = new HashSet<>(set1);
-        set.retainAll(set2);
-        return set;
+    /**
+     * Encodes entity sets as bit vectors over a shared numbering of their entities.
+     */
+    static long[][] toBitSets(List<Set<String>> entitySets) {
+        Map<String, Integer> entityIds = new HashMap<>();
+        long[][] bitSets = new long[entitySets.size()][];
+        for (int i = 0; i < entitySets.size(); i++) {
+            BitSet bitSet = new BitSet();
+            for (String entity : entitySets.get(i)) {
+                Integer id = entityIds.get(entity);
+                if (id == null) {
+                    id = entityIds.size();
+                    entityIds.put(entity, id);
+                }
+                bitSet.set(id);
+            }
+            bitSets[i] = bitSet.toLongArray();
+        }
+        return bitSets;
     }
 }
@@ -1,5 +1,7 @@
 package org.jetbrains.research.intellijdeodorant.core.distance;
 
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.psi.PsiExpression;
 import com.intellij.psi.PsiMethod;
@@ -11,34 +13,50 @@ import org.jetbrains.research.intellijdeodorant.core.ast.*;
 import org.jetbrains.research.intellijdeodorant.core.ast.association.Association;
 import org.jetbrains.research.intellijdeodorant.utils.math.Cluster;
 import org.jetbrains.research.intellijdeodorant.utils.math.Clustering;
+import org.jetbrains.research.intellijdeodorant.utils.math.SymmetricDistanceMatrix;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
+/**
+ * Entity sets of the members and classes of a system, used to detect Feature Envy and God Class smells.
+ * The members found in the entity sets ({@code Class::member} strings) are interned into integer ids once,
+ * so that Feature Envy detection works on ids instead of parsing and hashing these strings.
+ */
 public class DistanceMatrix {
-    private final Map<String, Integer> entityIndexMap;
     private final Map<String, Integer> classIndexMap;
     private final List<Entity> entityList;
     private final List<MyClass> classList;
-    //holds the entity set of each entity
-    private final Map<String, Set<String>> entityMap;
-    //holds the entity set of each class
-    private final Map<String, Set<String>> classMap;
+    //index of the superclass of each class, or -1 if it is not a class of the system
+    private int[] superclasses;
+    //class index of the origin of each member, or -1 if it is not a class of the system
+    private int[] memberClasses;
+    //entity index of each member, or -1 if the member is not an entity
+    private int[] memberEntities;
+    //holds the member ids of the entity set of each entity
+    private int[][] entityMembers;
+    //holds the member ids of the entity set of each class
+    private BitSet[] classMembers;
     private final MySystem system;
     private final int maximumNumberOfSourceClassMembersAccessedByMoveMethodCandidate = 2;
     private static final int maximumNumberOfSourceClassMembersAccessedByExtractClassCandidate = 2;
+    private static final int PARALLEL_JACCARD_THRESHOLD = 64;
+    private volatile MoveMethodRejectionCounters moveMethodRejections = new MoveMethodRejectionCounters();
 
     public DistanceMatrix(MySystem system) {
         this.system = system;
-        entityIndexMap = new LinkedHashMap<>();
         classIndexMap = new LinkedHashMap<>();
         entityList = new ArrayList<>();
         classList = new ArrayList<>();
-        entityMap = new LinkedHashMap<>();
-        classMap = new LinkedHashMap<>();
         generateDistances();
     }
 
     private void generateDistances() {
+        //holds the entity set of each entity
+        Map<String, Set<String>> entityMap = new LinkedHashMap<>();
+        //holds the entity set of each class
+        Map<String, Set<String>> classMap = new LinkedHashMap<>();
         Iterator<MyClass> classIt = system.getClassIterator();
         while (classIt.hasNext()) {
             MyClass myClass = classIt.next();
@@ -60,31 +78,72 @@ public class DistanceMatrix {
             classMap.put(myClass.getName(), myClass.getEntitySet());
         }
 
-        String[] entityNames = new String[entityList.size()];
-        String[] classNames = new String[classList.size()];
+        for (int i = 0; i < classList.size(); i++) {
+            String className = classList.get(i).getName();
+            if (!classIndexMap.containsKey(className))
+                classIndexMap.put(className, i);
+        }
+        superclasses = new int[classList.size()];
+        for (int i = 0; i < classList.size(); i++) {
+            String superclass = classList.get(i).getSuperclass();
+            superclasses[i] = superclass != null ? classIndexMap.getOrDefault(superclass, -1) : -1;
+        }
+
+        Map<String, Integer> memberIdMap = new HashMap<>();
+        List<String> members = new ArrayList<>();
+        entityMembers = new int[entityList.size()][];
+        for (int i = 0; i < entityList.size(); i++) {
+            entityMembers[i] = internMembers(entityMap.get(entityList.get(i).toString()), memberIdMap, members);
+        }
+        classMembers = new BitSet[classList.size()];
+        for (int i = 0; i < classList.size(); i++) {
+            classMembers[i] = new BitSet();
+            for (int member : internMembers(classMap.get(classList.get(i).getName()), memberIdMap, members)) {
+                classMembers[i].set(member);
+            }
+        }
+
+        Map<String, Integer> entityIndexMap = new HashMap<>();
+        for (int i = 0; i < entityList.size(); i++) {
+            entityIndexMap.put(entityList.get(i).toString(), i);
+        }
+        memberClasses = new int[members.size()];
+        memberEntities = new int[members.size()];
+        for (int i = 0; i < members.size(); i++) {
+            String member = members.get(i);
+            int separator = member.indexOf("::");
+            String classOrigin = separator >= 0 ? member.substring(0, separator) : member;
+            memberClasses[i] = classIndexMap.getOrDefault(classOrigin, -1);
+            memberEntities[i] = entityIndexMap.getOrDefault(member, -1);
+        }
+    }
 
+    private static int[] internMembers(Set<String> entitySet, Map<String, Integer> memberIdMap, List<String> members) {
+        int[] memberIds = new int[entitySet.size()];
         int i = 0;
-        for (Entity entity : entityList) {
-            entityNames[i] = entity.toString();
-            entityIndexMap.put(entityNames[i], i);
-            int j = 0;
-            for (MyClass myClass : classList) {
-                classNames[j] = myClass.getName();
-                if (!classIndexMap.containsKey(classNames[j]))
-                    classIndexMap.put(classNames[j], j);
-                j++;
+        for (String member : entitySet) {
+            Integer memberId = memberIdMap.get(member);
+            if (memberId == null) {
+                memberId = members.size();
+                memberIdMap.put(member, memberId);
+                members.add(member);
             }
-            i++;
+            memberIds[i++] = memberId;
         }
+        return memberIds;
     }
 
-    private List<MoveMethodCandidateRefactoring> identifyConceptualBindings(MyMethod method, Set<String> targetClasses) {
+    private List<MoveMethodCandidateRefactoring> identifyConceptualBindings(int methodIndex, int sourceClassIndex, AccessMap accessMap,
+                                                                            Map<PsiMethodCallExpression, PsiMethod> additionalMethodsToBeMoved) {
         SmartList<MoveMethodCandidateRefactoring> candidateRefactoringList = new SmartList<>();
+        MyMethod method = (MyMethod) entityList.get(methodIndex);
         MethodObject methodObject = method.getMethodObject();
-        String sourceClass = method.getClassOrigin();
-        for (String targetClass : targetClasses) {
-            if (!targetClass.equals(sourceClass)) {
-                ClassObject targetClassObject = system.getClass(targetClass).getClassObject();
+        for (int i = 0; i < accessMap.size(); i++) {
+            int targetClassIndex = accessMap.getClassIndex(i);
+            if (targetClassIndex != sourceClassIndex) {
+                MyClass myTargetClass = classList.get(targetClassIndex);
+                String targetClass = myTargetClass.getName();
+                ClassObject targetClassObject = myTargetClass.getClassObject();
                 ListIterator<ParameterObject> parameterIterator = methodObject.getParameterListIterator();
                 while (parameterIterator.hasNext()) {
                     ParameterObject parameter = parameterIterator.next();
@@ -115,38 +174,17 @@ public class DistanceMatrix {
                                             }
                                         }
                                         if (containerFieldIsAccessed) {
-                                            MyClass mySourceClass = classList.get(classIndexMap.get(sourceClass));
-                                            MyClass myTargetClass = classList.get(classIndexMap.get(targetClass));
-                                            MoveMethodCandidateRefactoring candidate = new MoveMethodCandidateRefactoring(system, mySourceClass, myTargetClass, method);
-                                            Map<PsiMethodCallExpression, PsiMethod> additionalMethodsToBeMoved = candidate.getAdditionalMethodsToBeMoved();
-                                            Collection<PsiMethod> values = additionalMethodsToBeMoved.values();
-                                            Set<String> methodEntitySet = entityMap.get(method.toString());
-                                            Set<String> sourceClassEntitySet = classMap.get(sourceClass);
-                                            Set<String> targetClassEntitySet = classMap.get(targetClass);
-                                            Set<String> intersectionWithSourceClass = DistanceCalculator.intersection(methodEntitySet, sourceClassEntitySet);
-                                            Set<String> intersectionWithTargetClass = DistanceCalculator.intersection(methodEntitySet, targetClassEntitySet);
-                                            Set<String> entitiesToRemoveFromIntersectionWithSourceClass = new LinkedHashSet<>();
-                                            if (!values.isEmpty()) {
-                                                for (String s : intersectionWithSourceClass) {
-                                                    int entityPosition = entityIndexMap.get(s);
-                                                    Entity e = entityList.get(entityPosition);
-                                                    if (e instanceof MyMethod) {
-                                                        MyMethod myInvokedMethod = (MyMethod) e;
-                                                        if (values.contains(myInvokedMethod.getMethodObject().getMethodDeclaration())) {
-                                                            entitiesToRemoveFromIntersectionWithSourceClass.add(s);
-                                                        }
-                                                    }
-                                                }
-                                                intersectionWithSourceClass.removeAll(entitiesToRemoveFromIntersectionWithSourceClass);
-                                            }
-                                            if (intersectionWithTargetClass.size() >= intersectionWithSourceClass.size()) {
-                                                if (candidate.isApplicable()) {
-                                                    int sourceClassDependencies = candidate.getDistinctSourceDependencies();
-                                                    int targetClassDependencies = candidate.getDistinctTargetDependencies();
-                                                    if (sourceClassDependencies <= maximumNumberOfSourceClassMembersAccessedByMoveMethodCandidate
-                                                            && sourceClassDependencies < targetClassDependencies) {
-                                                        candidateRefactoringList.add(candidate);
-                                                    }
+                                            MyClass mySourceClass = classList.get(sourceClassIndex);
+                                            if (!MoveMethodCandidateRefactoring.isValidTargetClass(myTargetClass)) {
+                                                moveMethodRejections.reject(MoveMethodRejectionCounters.Stage.TARGET_CLASS);
+                                            } else if (!accessesTargetClassAtLeastAsSourceClass(methodIndex, sourceClassIndex, targetClassIndex, additionalMethodsToBeMoved.values())) {
+                                                moveMethodRejections.reject(MoveMethodRejectionCounters.Stage.ENTITY_ACCESS);
+                                            } else {
+                                                MoveMethodCandidateRefactoring candidate = new MoveMethodCandidateRefactoring(system, mySourceClass, myTargetClass, method, additionalMethodsToBeMoved);
+                                                if (!candidate.isApplicable()) {
+                                                    moveMethodRejections.reject(MoveMethodRejectionCounters.Stage.APPLICABILITY);
+                                                } else if (hasAcceptableDependencies(candidate)) {
+                                                    candidateRefactoringList.add(candidate);
                                                 }
                                             }
                                         }
@@ -161,152 +199,249 @@ public class DistanceMatrix {
         return candidateRefactoringList;
     }
 
-    private boolean targetClassInheritedByAnotherCandidateTargetClass(String targetClass, Set<String> candidateTargetClasses) {
-        for (String candidateTargetClass : candidateTargetClasses) {
-            if (!candidateTargetClass.equals(targetClass)) {
-                MyClass currentSuperclass = classList.get(classIndexMap.get(candidateTargetClass));
-                String superclass;
-                while ((superclass = currentSuperclass.getSuperclass()) != null) {
-                    if (superclass.equals(targetClass))
+    private boolean targetClassInheritedByAnotherCandidateTargetClass(int targetClass, AccessMap candidateTargetClasses) {
+        for (int i = 0; i < candidateTargetClasses.size(); i++) {
+            int candidateTargetClass = candidateTargetClasses.getClassIndex(i);
+            if (candidateTargetClass != targetClass) {
+                int superclass = candidateTargetClass;
+                while ((superclass = superclasses[superclass]) != -1) {
+                    if (superclass == targetClass)
                         return true;
-                    currentSuperclass = classList.get(classIndexMap.get(superclass));
                 }
             }
         }
         return false;
     }
 
+    /**
+     * Finds the methods that access more members of another class than of their own class.
+     * The tentative refactorings go through stages of increasing cost: the preconditions of the method alone,
+     * the kind of the target class, the members accessed in both classes and, only for the candidates
+     * that are actually created, the remaining preconditions and the dependencies on the source class.
+     * The rejections of each stage are reported by {@link #getMoveMethodRejections()}.
+     * Methods are examined concurrently, and the candidates are returned in the order of the methods in the system.
+     */
     public List<MoveMethodCandidateRefactoring> getMoveMethodCandidateRefactoringsByAccess(Set<String> classNamesToBeExamined, ProgressIndicator indicator) {
-        List<MoveMethodCandidateRefactoring> candidateRefactoringList = new ArrayList<>();
+        moveMethodRejections = new MoveMethodRejectionCounters();
         indicator.setText(IntelliJDeodorantBundle.message("feature.envy.identification.indicator"));
         indicator.setFraction(0.0);
         int entityCount = entityList.size();
-        int processedEntities = 0;
-        for (Entity entity : entityList) {
-            processedEntities += 1;
-            if (entity instanceof MyMethod) {
-                String sourceClass = entity.getClassOrigin();
-                if (classNamesToBeExamined.contains(sourceClass)) {
-                    MyMethod method = (MyMethod) entity;
-                    Set<String> entitySetI = entityMap.get(entity.toString());
-                    Map<String, ArrayList<String>> accessMap = computeAccessMap(entitySetI);
-                    List<MoveMethodCandidateRefactoring> conceptuallyBoundRefactorings = identifyConceptualBindings(method, accessMap.keySet());
-                    if (!conceptuallyBoundRefactorings.isEmpty()) {
-                        candidateRefactoringList.addAll(conceptuallyBoundRefactorings);
-                    } else {
-                        TreeMap<Integer, ArrayList<String>> sortedByAccessMap = new TreeMap<>();
-                        for (String targetClass : accessMap.keySet()) {
-                            int numberOfAccessedEntities = accessMap.get(targetClass).size();
-                            if (sortedByAccessMap.containsKey(numberOfAccessedEntities)) {
-                                ArrayList<String> list = sortedByAccessMap.get(numberOfAccessedEntities);
-                                list.add(targetClass);
-                            } else {
-                                ArrayList<String> list = new ArrayList<>();
-                                list.add(targetClass);
-                                sortedByAccessMap.put(numberOfAccessedEntities, list);
-                            }
-                        }
+        List<Integer> methodIndices = new ArrayList<>();
+        for (int i = 0; i < entityCount; i++) {
+            Entity entity = entityList.get(i);
+            if (entity instanceof MyMethod && classNamesToBeExamined.contains(entity.getClassOrigin())) {
+                methodIndices.add(i);
+            }
+        }
+        int methodCount = methodIndices.size();
+        List<List<MoveMethodCandidateRefactoring>> candidatesPerEntity = new ArrayList<>(Collections.nCopies(entityCount, Collections.emptyList()));
+        AtomicInteger processedMethods = new AtomicInteger();
+        boolean completed = JobLauncher.getInstance().invokeConcurrentlyUnderProgress(methodIndices, indicator, i -> {
+            candidatesPerEntity.set(i, identifyCandidateRefactorings(i));
+            indicator.setFraction((double) processedMethods.incrementAndGet() / methodCount);
+            return true;
+        });
+        if (!completed) {
+            throw new ProcessCanceledException();
+        }
+        List<MoveMethodCandidateRefactoring> candidateRefactoringList = new ArrayList<>();
+        for (List<MoveMethodCandidateRefactoring> candidates : candidatesPerEntity) {
+            candidateRefactoringList.addAll(candidates);
+        }
+        indicator.setFraction(1.0);
+        return candidateRefactoringList;
+    }
 
-                        boolean candidateFound = false;
-                        boolean sourceClassIsTarget = false;
-                        while (!candidateFound && !sourceClassIsTarget && !sortedByAccessMap.isEmpty()) {
-                            ArrayList<String> targetClasses = sortedByAccessMap.get(sortedByAccessMap.lastKey());
-                            for (String targetClass : targetClasses) {
-                                if (sourceClass.equals(targetClass)) {
-                                    sourceClassIsTarget = true;
-                                } else {
-                                    MyClass mySourceClass = classList.get(classIndexMap.get(sourceClass));
-                                    MyClass myTargetClass = classList.get(classIndexMap.get(targetClass));
-                                    MoveMethodCandidateRefactoring candidate = new MoveMethodCandidateRefactoring(system, mySourceClass, myTargetClass, method);
-                                    Map<PsiMethodCallExpression, PsiMethod> additionalMethodsToBeMoved = candidate.getAdditionalMethodsToBeMoved();
-                                    Collection<PsiMethod> values = additionalMethodsToBeMoved.values();
-                                    Set<String> methodEntitySet = entityMap.get(method.toString());
-                                    Set<String> sourceClassEntitySet = classMap.get(sourceClass);
-                                    Set<String> targetClassEntitySet = classMap.get(targetClass);
-                                    Set<String> intersectionWithSourceClass = DistanceCalculator.intersection(methodEntitySet, sourceClassEntitySet);
-                                    Set<String> intersectionWithTargetClass = DistanceCalculator.intersection(methodEntitySet, targetClassEntitySet);
-                                    Set<String> entitiesToRemoveFromIntersectionWithSourceClass = new LinkedHashSet<>();
-                                    if (!values.isEmpty()) {
-                                        for (String s : intersectionWithSourceClass) {
-                                            int entityPosition = entityIndexMap.get(s);
-                                            Entity e = entityList.get(entityPosition);
-                                            if (e instanceof MyMethod) {
-                                                MyMethod invokedMethod = (MyMethod) e;
-                                                if (values.contains(invokedMethod.getMethodObject().getMethodDeclaration())) {
-                                                    entitiesToRemoveFromIntersectionWithSourceClass.add(s);
-                                                }
-                                            }
-                                        }
-                                        intersectionWithSourceClass.removeAll(entitiesToRemoveFromIntersectionWithSourceClass);
-                                    }
-                                    if (intersectionWithTargetClass.size() >= intersectionWithSourceClass.size()) {
-                                        if (candidate.isApplicable() && !targetClassInheritedByAnotherCandidateTargetClass(targetClass, accessMap.keySet())) {
-                                            int sourceClassDependencies = candidate.getDistinctSourceDependencies();
-                                            int targetClassDependencies = candidate.getDistinctTargetDependencies();
-                                            if (sourceClassDependencies <= maximumNumberOfSourceClassMembersAccessedByMoveMethodCandidate
-                                                    && sourceClassDependencies < targetClassDependencies) {
-                                                candidateRefactoringList.add(candidate);
-                                            }
-                                            candidateFound = true;
-                                        }
-                                    }
-                                }
+    private List<MoveMethodCandidateRefactoring> identifyCandidateRefactorings(int methodIndex) {
+        MyMethod method = (MyMethod) entityList.get(methodIndex);
+        int sourceClassIndex = classIndexMap.get(method.getClassOrigin());
+        MyClass mySourceClass = classList.get(sourceClassIndex);
+        if (!MoveMethodCandidateRefactoring.isMovable(system, mySourceClass, method)) {
+            moveMethodRejections.reject(MoveMethodRejectionCounters.Stage.SOURCE_METHOD);
+            return Collections.emptyList();
+        }
+        Map<PsiMethodCallExpression, PsiMethod> additionalMethodsToBeMoved =
+                MoveMethodCandidateRefactoring.findAdditionalMethodsToBeMoved(system, mySourceClass, method);
+        AccessMap accessMap = computeAccessMap(methodIndex);
+        List<MoveMethodCandidateRefactoring> conceptuallyBoundRefactorings =
+                identifyConceptualBindings(methodIndex, sourceClassIndex, accessMap, additionalMethodsToBeMoved);
+        if (!conceptuallyBoundRefactorings.isEmpty()) {
+            return conceptuallyBoundRefactorings;
+        }
+        List<MoveMethodCandidateRefactoring> candidateRefactoringList = new ArrayList<>();
+        TreeMap<Integer, List<Integer>> sortedByAccessMap = new TreeMap<>();
+        for (int i = 0; i < accessMap.size(); i++) {
+            sortedByAccessMap.computeIfAbsent(accessMap.getAccessCount(i), count -> new ArrayList<>()).add(accessMap.getClassIndex(i));
+        }
+
+        boolean candidateFound = false;
+        boolean sourceClassIsTarget = false;
+        while (!candidateFound && !sourceClassIsTarget && !sortedByAccessMap.isEmpty()) {
+            List<Integer> targetClasses = sortedByAccessMap.get(sortedByAccessMap.lastKey());
+            for (int targetClassIndex : targetClasses) {
+                if (targetClassIndex == sourceClassIndex) {
+                    sourceClassIsTarget = true;
+                } else {
+                    MyClass myTargetClass = classList.get(targetClassIndex);
+                    if (!MoveMethodCandidateRefactoring.isValidTargetClass(myTargetClass)) {
+                        moveMethodRejections.reject(MoveMethodRejectionCounters.Stage.TARGET_CLASS);
+                    } else if (!accessesTargetClassAtLeastAsSourceClass(methodIndex, sourceClassIndex, targetClassIndex, additionalMethodsToBeMoved.values())) {
+                        moveMethodRejections.reject(MoveMethodRejectionCounters.Stage.ENTITY_ACCESS);
+                    } else {
+                        MoveMethodCandidateRefactoring candidate = new MoveMethodCandidateRefactoring(system, mySourceClass, myTargetClass, method, additionalMethodsToBeMoved);
+                        if (!candidate.isApplicable() || targetClassInheritedByAnotherCandidateTargetClass(targetClassIndex, accessMap)) {
+                            moveMethodRejections.reject(MoveMethodRejectionCounters.Stage.APPLICABILITY);
+                        } else {
+                            if (hasAcceptableDependencies(candidate)) {
+                                candidateRefactoringList.add(candidate);
                             }
-                            sortedByAccessMap.remove(sortedByAccessMap.lastKey());
+                            candidateFound = true;
                         }
                     }
                 }
             }
-            indicator.setFraction((double) processedEntities / entityCount);
+            sortedByAccessMap.remove(sortedByAccessMap.lastKey());
         }
-        indicator.setFraction(1.0);
         return candidateRefactoringList;
     }
 
-    private Map<String, ArrayList<String>> computeAccessMap(Set<String> entitySetI) {
-        Map<String, ArrayList<String>> accessMap = new LinkedHashMap<>();
-        for (String e : entitySetI) {
-            String[] tokens = e.split("::");
-            String classOrigin = tokens[0];
-            String entityName = tokens[1];
-            if (accessMap.containsKey(classOrigin)) {
-                ArrayList<String> list = accessMap.get(classOrigin);
-                list.add(entityName);
-            } else {
-                ArrayList<String> list = new ArrayList<>();
-                list.add(entityName);
-                if (classMap.containsKey(classOrigin)) accessMap.put(classOrigin, list);
+    /**
+     * Checks that the method accesses at least as many members of the target class as of the source class,
+     * not counting the source class methods that would be moved together with it.
+     */
+    private boolean accessesTargetClassAtLeastAsSourceClass(int methodIndex, int sourceClassIndex, int targetClassIndex,
+                                                          Collection<PsiMethod> additionalMethodsToBeMoved) {
+        int sourceClassAccesses = 0;
+        int targetClassAccesses = 0;
+        for (int member : entityMembers[methodIndex]) {
+            if (classMembers[targetClassIndex].get(member)) {
+                targetClassAccesses++;
+            }
+            if (classMembers[sourceClassIndex].get(member) && !isMovedAlong(member, additionalMethodsToBeMoved)) {
+                sourceClassAccesses++;
             }
         }
+        return targetClassAccesses >= sourceClassAccesses;
+    }
 
-        for (String key1 : accessMap.keySet()) {
-            ClassObject classObject = ASTReader.getSystemObject().getClassObject(key1);
-            if (classObject != null && classObject.getSuperclass() != null) {
-                for (String key2 : accessMap.keySet()) {
-                    if (classObject.getSuperclass().getClassType().equals(key2)) {
-                        ArrayList<String> list = accessMap.get(key1);
-                        list.addAll(accessMap.get(key2));
-                    }
+    private boolean isMovedAlong(int member, Collection<PsiMethod> additionalMethodsToBeMoved) {
+        if (additionalMethodsToBeMoved.isEmpty() || memberEntities[member] < 0) {
+            return false;
+        }
+        Entity entity = entityList.get(memberEntities[member]);
+        return entity instanceof MyMethod
+                && additionalMethodsToBeMoved.contains(((MyMethod) entity).getMethodObject().getMethodDeclaration());
+    }
+
+    private boolean hasAcceptableDependencies(MoveMethodCandidateRefactoring candidate) {
+        int sourceClassDependencies = candidate.getDistinctSourceDependencies();
+        int targetClassDependencies = candidate.getDistinctTargetDependencies();
+        if (sourceClassDependencies <= maximumNumberOfSourceClassMembersAccessedByMoveMethodCandidate
+                && sourceClassDependencies < targetClassDependencies) {
+            return true;
+        }
+        moveMethodRejections.reject(MoveMethodRejectionCounters.Stage.DEPENDENCIES);
+        return false;
+    }
+
+    /**
+     * Returns the rejection counters of the last Feature Envy detection.
+     */
+    public MoveMethodRejectionCounters getMoveMethodRejections() {
+        return moveMethodRejections;
+    }
+
+    /**
+     * Counts the members of each class of the system accessed by a method. A class also counts
+     * the accessed members of its superclass.
+     */
+    private AccessMap computeAccessMap(int methodIndex) {
+        int[] members = entityMembers[methodIndex];
+        AccessMap accessMap = new AccessMap(members.length);
+        for (int member : members) {
+            if (memberClasses[member] >= 0) {
+                accessMap.addAccess(memberClasses[member]);
+            }
+        }
+
+        for (int i = 0; i < accessMap.size(); i++) {
+            int superclass = superclasses[accessMap.getClassIndex(i)];
+            if (superclass >= 0) {
+                int superclassPosition = accessMap.indexOf(superclass);
+                if (superclassPosition >= 0) {
+                    accessMap.accessCounts[i] += accessMap.accessCounts[superclassPosition];
                 }
             }
         }
         return accessMap;
     }
 
-    public double[][] getJaccardDistanceMatrix(MyClass sourceClass) {
+    /**
+     * Number of accessed members per class index, with the classes in the order of their first access.
+     */
+    private static class AccessMap {
+        private final int[] classIndices;
+        private final int[] accessCounts;
+        private int size;
+
+        private AccessMap(int capacity) {
+            this.classIndices = new int[capacity];
+            this.accessCounts = new int[capacity];
+        }
+
+        private void addAccess(int classIndex) {
+            int position = indexOf(classIndex);
+            if (position < 0) {
+                position = size++;
+                classIndices[position] = classIndex;
+            }
+            accessCounts[position]++;
+        }
+
+        private int indexOf(int classIndex) {
+            for (int i = 0; i < size; i++) {
+                if (classIndices[i] == classIndex)
+                    return i;
+            }
+            return -1;
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private int getClassIndex(int position) {
+            return classIndices[position];
+        }
+
+        private int getAccessCount(int position) {
+            return accessCounts[position];
+        }
+    }
+
+    public SymmetricDistanceMatrix getJaccardDistanceMatrix(MyClass sourceClass) {
         ArrayList<Entity> entities = new ArrayList<>();
         entities.addAll(sourceClass.getAttributeList());
         entities.addAll(sourceClass.getMethodList());
-        double[][] jaccardDistanceMatrix = new double[entities.size()][entities.size()];
-        for (int i = 0; i < jaccardDistanceMatrix.length; i++) {
-            for (int j = 0; j < jaccardDistanceMatrix.length; j++) {
-                if (i != j) {
-                    jaccardDistanceMatrix[i][j] = DistanceCalculator.getDistance(entities.get(i).getFullEntitySet(), entities.get(j).getFullEntitySet());
-                } else {
-                    jaccardDistanceMatrix[i][j] = 0.0;
-                }
-            }
+        List<Set<String>> entitySets = new ArrayList<>(entities.size());
+        for (Entity entity : entities) {
+            entitySets.add(entity.getFullEntitySet());
+        }
+        long[][] bitSets = DistanceCalculator.toBitSets(entitySets);
+        int[] cardinalities = new int[entitySets.size()];
+        for (int i = 0; i < cardinalities.length; i++) {
+            cardinalities[i] = entitySets.get(i).size();
         }
+        SymmetricDistanceMatrix jaccardDistanceMatrix = new SymmetricDistanceMatrix(entities.size());
+        IntStream rows = IntStream.range(0, jaccardDistanceMatrix.size());
+        if (jaccardDistanceMatrix.size() >= PARALLEL_JACCARD_THRESHOLD) {
+            rows = rows.parallel();
+        }
+        rows.forEach(i -> {
+            for (int j = i + 1; j < jaccardDistanceMatrix.size(); j++) {
+                jaccardDistanceMatrix.set(i, j, DistanceCalculator.getDistance(bitSets[i], cardinalities[i], bitSets[j], cardinalities[j]));
+            }
+        });
         return jaccardDistanceMatrix;
     }
 
@@ -326,7 +461,7 @@ public class DistanceMatrix {
         indicator.setFraction(0.0);
         for (MyClass sourceClass : oldClasses) {
             if (!sourceClass.getMethodList().isEmpty() && !sourceClass.getAttributeList().isEmpty()) {
-                double[][] distanceMatrix = getJaccardDistanceMatrix(sourceClass);
+                SymmetricDistanceMatrix distanceMatrix = getJaccardDistanceMatrix(sourceClass);
                 Clustering clustering = Clustering.getInstance(distanceMatrix);
                 ArrayList<Entity> entities = new ArrayList<>();
                 entities.addAll(sourceClass.getAttributeList());
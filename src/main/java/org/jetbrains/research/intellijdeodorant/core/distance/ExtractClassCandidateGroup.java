@@ -58,16 +58,6 @@ public class ExtractClassCandidateGroup implements Comparable<ExtractClassCandid
             tempCandidates.removeAll(candidatesToBeRemoved);
             extractedConcepts.add(newConcept);
         }
-        findConceptTerms();
-    }
-
-    private void findConceptTerms() {
-        for (ExtractedConcept concept : extractedConcepts) {
-            concept.findTopics();
-            for (ExtractClassCandidateRefactoring conceptCluster : concept.getConceptClusters()) {
-                conceptCluster.findTopics();
-            }
-        }
     }
 
     public int compareTo(ExtractClassCandidateGroup other) {
@@ -4,9 +4,11 @@ import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiJavaFile;
 import com.intellij.psi.PsiMethod;
+import org.jetbrains.research.intellijdeodorant.core.GodClassDependencyCounts;
 import org.jetbrains.research.intellijdeodorant.core.GodClassVisualizationData;
 import org.jetbrains.research.intellijdeodorant.core.ast.FieldObject;
 import org.jetbrains.research.intellijdeodorant.core.ast.MethodObject;
+import org.jetbrains.research.intellijdeodorant.core.ast.SystemObject;
 import org.jetbrains.research.intellijdeodorant.core.ast.TypeObject;
 import org.jetbrains.research.intellijdeodorant.utils.TopicFinder;
 
@@ -20,7 +22,8 @@ public class ExtractClassCandidateRefactoring extends CandidateRefactoring imple
     private final List<Entity> extractedEntities;
     private final Map<MyMethod, Boolean> leaveDelegate;
     private final String targetClassName;
-    private final GodClassVisualizationData visualizationData;
+    private GodClassDependencyCounts dependencyCounts;
+    private GodClassVisualizationData visualizationData;
     private List<String> topics;
 
     public ExtractClassCandidateRefactoring(MySystem system, MyClass sourceClass, ArrayList<Entity> extractedEntities) {
@@ -34,20 +37,10 @@ public class ExtractClassCandidateRefactoring extends CandidateRefactoring imple
         } else {
             this.targetClassName = sourceClass.getClassObject().getPsiClass().getName() + "Product2";
         }
-        this.topics = new ArrayList<>();
-        Set<MethodObject> extractedMethods = new LinkedHashSet<>();
-        Set<FieldObject> extractedFields = new LinkedHashSet<>();
-        for (Entity entity : extractedEntities) {
-            if (entity instanceof MyMethod) {
-                MyMethod myMethod = (MyMethod) entity;
-                extractedMethods.add(myMethod.getMethodObject());
-            } else if (entity instanceof MyAttribute) {
-                MyAttribute myAttribute = (MyAttribute) entity;
-                extractedFields.add(myAttribute.getFieldObject());
-            }
-        }
+    }
 
-        this.visualizationData = new GodClassVisualizationData(sourceClass.getClassObject(), extractedMethods, extractedFields);
+    public SystemObject getSystemObject() {
+        return system.getSystemObject();
     }
 
     public String getDefaultTargetClassName() {
@@ -113,7 +106,7 @@ public class ExtractClassCandidateRefactoring extends CandidateRefactoring imple
             }
         }
         return extractedEntities.size() > 2 && methodCounter != 0 && validRemainingMethodsInSourceClass()
-                && validRemainingFieldsInSourceClass() && !visualizationData.containsNonAccessedFieldInExtractedClass();
+                && validRemainingFieldsInSourceClass() && !getDependencyCounts().containsNonAccessedFieldInExtractedClass();
     }
 
     private boolean validRemainingMethodsInSourceClass() {
@@ -199,7 +192,7 @@ public class ExtractClassCandidateRefactoring extends CandidateRefactoring imple
     }
 
     private boolean overridesMethod(MyMethod method) {
-        return method.getMethodObject().overridesMethod();
+        return system.getSystemObject().overridesMethod(method.getMethodObject());
     }
 
     private boolean containsSuperMethodInvocation(MyMethod method) {
@@ -254,7 +247,17 @@ public class ExtractClassCandidateRefactoring extends CandidateRefactoring imple
         }
     }
 
-    public void findTopics() {
+    /**
+     * Returns the topics of the extracted entities, found when they are first displayed.
+     */
+    public synchronized List<String> getTopics() {
+        if (topics == null) {
+            topics = findTopics();
+        }
+        return topics;
+    }
+
+    private List<String> findTopics() {
         List<String> codeElements = new ArrayList<>();
         for (Entity entity : this.extractedEntities) {
             if (entity instanceof MyAttribute) {
@@ -265,19 +268,57 @@ public class ExtractClassCandidateRefactoring extends CandidateRefactoring imple
                 codeElements.add(method.getMethodName());
             }
         }
-        this.topics = TopicFinder.findTopics(codeElements);
+        return TopicFinder.findTopics(codeElements);
     }
 
-    public List<String> getTopics() {
-        return topics;
+    /**
+     * The dependencies are counted only once a candidate passes the cheaper applicability checks.
+     */
+    private synchronized GodClassDependencyCounts getDependencyCounts() {
+        if (dependencyCounts == null) {
+            dependencyCounts = new GodClassDependencyCounts(sourceClass.getClassObject(), getExtractedMethodObjects(), getExtractedFieldObjects());
+        }
+        return dependencyCounts;
+    }
+
+    /**
+     * Returns the visualization data of the candidate, built the first time the candidate is displayed.
+     */
+    public synchronized GodClassVisualizationData getVisualizationData() {
+        if (visualizationData == null) {
+            visualizationData = new GodClassVisualizationData(sourceClass.getClassObject(), getExtractedMethodObjects(), getExtractedFieldObjects());
+        }
+        return visualizationData;
+    }
+
+    private Set<MethodObject> getExtractedMethodObjects() {
+        Set<MethodObject> extractedMethods = new LinkedHashSet<>();
+        for (Entity entity : extractedEntities) {
+            if (entity instanceof MyMethod) {
+                MyMethod myMethod = (MyMethod) entity;
+                extractedMethods.add(myMethod.getMethodObject());
+            }
+        }
+        return extractedMethods;
+    }
+
+    private Set<FieldObject> getExtractedFieldObjects() {
+        Set<FieldObject> extractedFields = new LinkedHashSet<>();
+        for (Entity entity : extractedEntities) {
+            if (entity instanceof MyAttribute) {
+                MyAttribute myAttribute = (MyAttribute) entity;
+                extractedFields.add(myAttribute.getFieldObject());
+            }
+        }
+        return extractedFields;
     }
 
     public int getDistinctSourceDependencies() {
-        return visualizationData.getDistinctSourceDependencies();
+        return getDependencyCounts().getDistinctSourceDependencies();
     }
 
     public int getDistinctTargetDependencies() {
-        return visualizationData.getDistinctTargetDependencies();
+        return getDependencyCounts().getDistinctTargetDependencies();
     }
 
     public PsiJavaFile getSourceFile() {
@@ -12,7 +12,6 @@ public class ExtractedConcept implements Comparable<ExtractedConcept> {
     public ExtractedConcept(Set<Entity> conceptEntities) {
         this.conceptEntities = conceptEntities;
         this.conceptClusters = new HashSet<>();
-        this.topics = new ArrayList<>();
     }
 
     public Set<Entity> getConceptEntities() {
@@ -27,7 +26,17 @@ public class ExtractedConcept implements Comparable<ExtractedConcept> {
         this.conceptClusters.add(candidate);
     }
 
-    public void findTopics() {
+    /**
+     * Returns the topics of the concept entities, found on first use.
+     */
+    public synchronized List<String> getTopics() {
+        if (topics == null) {
+            topics = findTopics();
+        }
+        return topics;
+    }
+
+    private List<String> findTopics() {
         List<String> codeElements = new ArrayList<>();
         for (Entity entity : this.getConceptEntities()) {
             if (entity instanceof MyAttribute) {
@@ -38,7 +47,7 @@ public class ExtractedConcept implements Comparable<ExtractedConcept> {
                 codeElements.add(method.getMethodName());
             }
         }
-        this.topics = TopicFinder.findTopics(codeElements);
+        return TopicFinder.findTopics(codeElements);
     }
 
     public int compareTo(ExtractedConcept other) {
@@ -51,6 +60,6 @@ public class ExtractedConcept implements Comparable<ExtractedConcept> {
 
     @Override
     public String toString() {
-        return topics.toString();
+        return getTopics().toString();
     }
 }
@@ -3,17 +3,17 @@ package org.jetbrains.research.intellijdeodorant.core.distance;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiMethodCallExpression;
+import org.jetbrains.research.intellijdeodorant.core.FeatureEnvyDependencyCounts;
 import org.jetbrains.research.intellijdeodorant.core.FeatureEnvyVisualizationData;
 import org.jetbrains.research.intellijdeodorant.core.ast.FieldInstructionObject;
 import org.jetbrains.research.intellijdeodorant.core.ast.MethodInvocationObject;
 import org.jetbrains.research.intellijdeodorant.core.ast.MethodObject;
 import org.jetbrains.research.intellijdeodorant.core.ast.TypeObject;
 import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.cfg.PlainVariable;
+import org.jetbrains.research.intellijdeodorant.utils.PsiUtils;
 
 import java.util.*;
 
-import static org.jetbrains.research.intellijdeodorant.utils.PsiUtils.isTestClass;
-
 public class MoveMethodCandidateRefactoring extends CandidateRefactoring implements Comparable<MoveMethodCandidateRefactoring> {
     private final MySystem system;
     private final MyClass sourceClass;
@@ -22,15 +22,29 @@ public class MoveMethodCandidateRefactoring extends CandidateRefactoring impleme
     //contains source class methods that do not access any field or method and are accessed only by sourceMethod
     private final Map<PsiMethodCallExpression, PsiMethod> additionalMethodsToBeMoved;
     private String movedMethodName;
-    private final FeatureEnvyVisualizationData visualizationData;
+    private volatile FeatureEnvyDependencyCounts dependencyCounts;
+    private volatile FeatureEnvyVisualizationData visualizationData;
 
     public MoveMethodCandidateRefactoring(MySystem system, MyClass sourceClass, MyClass targetClass, MyMethod sourceMethod) {
+        this(system, sourceClass, targetClass, sourceMethod, findAdditionalMethodsToBeMoved(system, sourceClass, sourceMethod));
+    }
+
+    /**
+     * Creates a candidate with the additional methods already found for {@code sourceMethod},
+     * which do not depend on the target class and can be shared by all candidates of the method.
+     */
+    MoveMethodCandidateRefactoring(MySystem system, MyClass sourceClass, MyClass targetClass, MyMethod sourceMethod,
+                                   Map<PsiMethodCallExpression, PsiMethod> additionalMethodsToBeMoved) {
         this.system = system;
         this.sourceClass = sourceClass;
         this.targetClass = targetClass;
         this.sourceMethod = sourceMethod;
-        this.additionalMethodsToBeMoved = new LinkedHashMap<>();
+        this.additionalMethodsToBeMoved = additionalMethodsToBeMoved;
         this.movedMethodName = sourceMethod.getMethodName();
+    }
+
+    static Map<PsiMethodCallExpression, PsiMethod> findAdditionalMethodsToBeMoved(MySystem system, MyClass sourceClass, MyMethod sourceMethod) {
+        Map<PsiMethodCallExpression, PsiMethod> additionalMethodsToBeMoved = new LinkedHashMap<>();
         List<MethodInvocationObject> methodInvocations = sourceMethod.getMethodObject().getMethodInvocations();
         for (MethodInvocationObject methodInvocation : methodInvocations) {
             if (methodInvocation.getOriginClassName().equals(sourceClass.getClassObject().getName()) &&
@@ -58,15 +72,31 @@ public class MoveMethodCandidateRefactoring extends CandidateRefactoring impleme
                     additionalMethodsToBeMoved.put(methodInvocation.getMethodInvocation(), invokedMethod.getMethodDeclaration());
             }
         }
-        this.visualizationData = new FeatureEnvyVisualizationData(sourceClass.getClassObject(),
-                sourceMethod.getMethodObject(), targetClass.getClassObject());
+        return additionalMethodsToBeMoved;
     }
 
     boolean isApplicable() {
-        return !isSynchronized() && !containsSuperMethodInvocation() && !overridesMethod() && !containsFieldAssignment()
-                && !isTargetClassAnInterface() && validTargetObject() && !oneToManyRelationshipWithTargetClass()
-                && !containsAssignmentToTargetClassVariable() && !containsMethodCallWithThisExpressionAsArgument()
-                && !isTargetClassAnEnum() && !isSourceClassATestClass()
+        return isMovable(system, sourceClass, sourceMethod) && isValidTargetClass(targetClass) && isApplicableToTargetClass();
+    }
+
+    /**
+     * Checks the preconditions that depend only on the source method, so that a method failing them
+     * can be rejected before any candidate is created for it.
+     */
+    static boolean isMovable(MySystem system, MyClass sourceClass, MyMethod sourceMethod) {
+        MethodObject methodObject = sourceMethod.getMethodObject();
+        return !methodObject.isSynchronized() && !methodObject.containsSuperMethodInvocation() && !methodObject.containsSuperFieldAccess()
+                && !system.getSystemObject().overridesMethod(methodObject) && methodObject.getDefinedFieldsThroughThisReference().isEmpty()
+                && !methodObject.containsMethodCallWithThisExpressionAsArgument() && !isTestClass(sourceClass);
+    }
+
+    static boolean isValidTargetClass(MyClass targetClass) {
+        return !targetClass.getClassObject().isInterface() && !targetClass.getClassObject().isEnum();
+    }
+
+    private boolean isApplicableToTargetClass() {
+        return validTargetObject() && !oneToManyRelationshipWithTargetClass()
+                && !containsAssignmentToTargetClassVariable()
                 && !targetClassContainsMethodWithSourceMethodSignature() && !containsNullCheckForTargetObject();
     }
 
@@ -98,19 +128,11 @@ public class MoveMethodCandidateRefactoring extends CandidateRefactoring impleme
         return false;
     }
 
-    private boolean isSourceClassATestClass() {
-        return isTestClass(sourceClass.getClassObject().getPsiClass())
+    private static boolean isTestClass(MyClass sourceClass) {
+        return PsiUtils.isTestClass(sourceClass.getClassObject().getPsiClass())
                 || sourceClass.getClassObject().containsMethodWithTestAnnotation();
     }
 
-    private boolean isTargetClassAnInterface() {
-        return targetClass.getClassObject().isInterface();
-    }
-
-    private boolean isTargetClassAnEnum() {
-        return targetClass.getClassObject().isEnum();
-    }
-
     private boolean validTargetObject() {
         return sourceMethod.getMethodObject().validTargetObject(sourceClass.getClassObject(), targetClass.getClassObject());
     }
@@ -119,14 +141,6 @@ public class MoveMethodCandidateRefactoring extends CandidateRefactoring impleme
         return sourceMethod.getMethodObject().oneToManyRelationshipWithTargetClass(system.getAssociationsOfClass(sourceClass.getClassObject()), targetClass.getClassObject());
     }
 
-    private boolean overridesMethod() {
-        return sourceMethod.getMethodObject().overridesMethod();
-    }
-
-    private boolean containsFieldAssignment() {
-        return !sourceMethod.getMethodObject().getDefinedFieldsThroughThisReference().isEmpty();
-    }
-
     private boolean containsAssignmentToTargetClassVariable() {
         Set<PlainVariable> definedVariables = sourceMethod.getMethodObject().getDefinedLocalVariables();
         for (PlainVariable variable : definedVariables) {
@@ -136,18 +150,6 @@ public class MoveMethodCandidateRefactoring extends CandidateRefactoring impleme
         return false;
     }
 
-    private boolean containsSuperMethodInvocation() {
-        return sourceMethod.getMethodObject().containsSuperMethodInvocation() || sourceMethod.getMethodObject().containsSuperFieldAccess();
-    }
-
-    private boolean isSynchronized() {
-        return sourceMethod.getMethodObject().isSynchronized();
-    }
-
-    private boolean containsMethodCallWithThisExpressionAsArgument() {
-        return sourceMethod.getMethodObject().containsMethodCallWithThisExpressionAsArgument();
-    }
-
     private boolean containsNullCheckForTargetObject() {
         return sourceMethod.getMethodObject().containsNullCheckForTargetObject(targetClass.getClassObject());
     }
@@ -221,8 +223,40 @@ public class MoveMethodCandidateRefactoring extends CandidateRefactoring impleme
         return sourceMethod.getEntitySet();
     }
 
+    /**
+     * Counts the distinct dependencies on first use, for the candidates that are filtered and ranked by them.
+     */
+    private FeatureEnvyDependencyCounts getDependencyCounts() {
+        FeatureEnvyDependencyCounts counts = dependencyCounts;
+        if (counts == null) {
+            synchronized (this) {
+                counts = dependencyCounts;
+                if (counts == null) {
+                    counts = new FeatureEnvyDependencyCounts(sourceClass.getClassObject(),
+                            sourceMethod.getMethodObject(), targetClass.getClassObject());
+                    dependencyCounts = counts;
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Computes the visualization data on first use, so that it is built only for the candidates that are displayed.
+     */
     private FeatureEnvyVisualizationData getFeatureEnvyVisualizationData() {
-        return visualizationData;
+        FeatureEnvyVisualizationData data = visualizationData;
+        if (data == null) {
+            synchronized (this) {
+                data = visualizationData;
+                if (data == null) {
+                    data = new FeatureEnvyVisualizationData(sourceClass.getClassObject(),
+                            sourceMethod.getMethodObject(), targetClass.getClassObject());
+                    visualizationData = data;
+                }
+            }
+        }
+        return data;
     }
 
 
@@ -254,14 +288,14 @@ public class MoveMethodCandidateRefactoring extends CandidateRefactoring impleme
     }
 
     public int getDistinctSourceDependencies() {
-        return getFeatureEnvyVisualizationData().getDistinctSourceDependencies();
+        return getDependencyCounts().getDistinctSourceDependencies();
     }
 
     public int getDistinctTargetDependencies() {
-        return getFeatureEnvyVisualizationData().getDistinctTargetDependencies();
+        return getDependencyCounts().getDistinctTargetDependencies();
     }
 
     public FeatureEnvyVisualizationData getVisualizationData() {
-        return visualizationData;
+        return getFeatureEnvyVisualizationData();
     }
 }
@@ -0,0 +1,42 @@
+package org.jetbrains.research.intellijdeodorant.core.distance;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Counts how many tentative Move Method refactorings each stage of Feature Envy detection rejected.
+ * Methods rejected by {@link Stage#SOURCE_METHOD} are counted once, whatever the number of their target classes.
+ */
+public class MoveMethodRejectionCounters {
+    public enum Stage {
+        /** the method cannot be moved to any class, e.g. it is synchronized or overrides another method */
+        SOURCE_METHOD,
+        /** the target class is an interface or an enum */
+        TARGET_CLASS,
+        /** the method accesses fewer members of the target class than of the source class */
+        ENTITY_ACCESS,
+        /** the remaining preconditions that depend on both the method and the target class */
+        APPLICABILITY,
+        /** the method depends on too many members of the source class */
+        DEPENDENCIES
+    }
+
+    private final AtomicIntegerArray rejections = new AtomicIntegerArray(Stage.values().length);
+
+    void reject(Stage stage) {
+        rejections.incrementAndGet(stage.ordinal());
+    }
+
+    public int getRejections(Stage stage) {
+        return rejections.get(stage.ordinal());
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Stage stage : Stage.values()) {
+            if (sb.length() > 0)
+                sb.append(", ");
+            sb.append(stage).append("=").append(getRejections(stage));
+        }
+        return sb.toString();
+    }
+}
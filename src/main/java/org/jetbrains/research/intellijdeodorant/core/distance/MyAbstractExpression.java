@@ -1,6 +1,5 @@
 package org.jetbrains.research.intellijdeodorant.core.distance;
 
-import org.jetbrains.research.intellijdeodorant.core.ast.ASTReader;
 import org.jetbrains.research.intellijdeodorant.core.ast.FieldInstructionObject;
 import org.jetbrains.research.intellijdeodorant.core.ast.MethodInvocationObject;
 import org.jetbrains.research.intellijdeodorant.core.ast.SystemObject;
@@ -14,13 +13,11 @@ class MyAbstractExpression {
     private List<MyMethodInvocation> methodInvocationList;
     private List<MyAttributeInstruction> attributeInstructionList;
 
-    public MyAbstractExpression(AbstractExpression expression) {
+    public MyAbstractExpression(AbstractExpression expression, SystemObject system) {
         this.expression = expression;
         this.owner = null;
         this.methodInvocationList = new ArrayList<>();
         this.attributeInstructionList = new ArrayList<>();
-        SystemObject system = ASTReader.getSystemObject();
-
         List<FieldInstructionObject> fieldInstructions = expression.getFieldInstructions();
         for (FieldInstructionObject fio : fieldInstructions) {
             if (system.getClassObject(fio.getOwnerClass()) != null && !fio.isStatic()) {
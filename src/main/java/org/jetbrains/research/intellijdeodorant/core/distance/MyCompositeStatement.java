@@ -1,5 +1,6 @@
 package org.jetbrains.research.intellijdeodorant.core.distance;
 
+import org.jetbrains.research.intellijdeodorant.core.ast.SystemObject;
 import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.AbstractStatement;
 
 import java.util.ArrayList;
@@ -10,8 +11,8 @@ public class MyCompositeStatement extends MyAbstractStatement {
 	private final List<MyAbstractStatement> statementList;
 	private final List<MyAbstractExpression> expressionList;
 	
-	public MyCompositeStatement(AbstractStatement statement) {
-		super(statement);
+	public MyCompositeStatement(AbstractStatement statement, SystemObject system) {
+		super(statement, system);
 		this.statementList = new ArrayList<>();
 		this.expressionList = new ArrayList<>();
 	}
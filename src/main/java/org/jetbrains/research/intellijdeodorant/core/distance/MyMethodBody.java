@@ -1,5 +1,6 @@
 package org.jetbrains.research.intellijdeodorant.core.distance;
 
+import org.jetbrains.research.intellijdeodorant.core.ast.SystemObject;
 import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.*;
 
 import java.util.List;
@@ -10,33 +11,33 @@ class MyMethodBody {
     private final MyCompositeStatement compositeStatement;
     private final MethodBodyObject methodBodyObject;
 
-    public MyMethodBody(MethodBodyObject methodBody) {
+    public MyMethodBody(MethodBodyObject methodBody, SystemObject system) {
         this.methodBodyObject = methodBody;
         CompositeStatementObject compositeStatementObject = methodBody.getCompositeStatement();
-        this.compositeStatement = new MyCompositeStatement(compositeStatementObject);
+        this.compositeStatement = new MyCompositeStatement(compositeStatementObject, system);
 
         List<AbstractStatement> statements = compositeStatementObject.getStatements();
         for (AbstractStatement statement : statements) {
-            processStatement(compositeStatement, statement);
+            processStatement(compositeStatement, statement, system);
         }
     }
 
-    private void processStatement(MyCompositeStatement parent, AbstractStatement statement) {
+    private void processStatement(MyCompositeStatement parent, AbstractStatement statement, SystemObject system) {
         if (statement instanceof StatementObject) {
-            MyStatement child = new MyStatement(statement);
+            MyStatement child = new MyStatement(statement, system);
             parent.addStatement(child);
         } else if (statement instanceof CompositeStatementObject) {
-            MyCompositeStatement child = new MyCompositeStatement(statement);
+            MyCompositeStatement child = new MyCompositeStatement(statement, system);
             parent.addStatement(child);
             CompositeStatementObject compositeStatementObject = (CompositeStatementObject) statement;
             List<AbstractExpression> expressions = compositeStatementObject.getExpressions();
             for (AbstractExpression expression : expressions) {
-                MyAbstractExpression myAbstractExpression = new MyAbstractExpression(expression);
+                MyAbstractExpression myAbstractExpression = new MyAbstractExpression(expression, system);
                 child.addExpression(myAbstractExpression);
             }
             List<AbstractStatement> statements = compositeStatementObject.getStatements();
             for (AbstractStatement statement2 : statements) {
-                processStatement(child, statement2);
+                processStatement(child, statement2, system);
             }
         }
     }
@@ -69,7 +69,7 @@ public class MySystem {
                         myMethod.setMethodObject(mo);
                         MethodBodyObject methodBodyObject = mo.getMethodBody();
                         if (methodBodyObject != null) {
-                            MyMethodBody myMethodBody = new MyMethodBody(methodBodyObject);
+                            MyMethodBody myMethodBody = new MyMethodBody(methodBodyObject, systemObject);
                             myMethod.setMethodBody(myMethodBody);
                         }
                         myClass.addMethod(myMethod);
@@ -137,7 +137,7 @@ public class MySystem {
                         myMethod.setMethodObject(mo);
                         MethodBodyObject methodBodyObject = mo.getMethodBody();
                         if (methodBodyObject != null) {
-                            MyMethodBody myMethodBody = new MyMethodBody(methodBodyObject);
+                            MyMethodBody myMethodBody = new MyMethodBody(methodBodyObject, systemObject);
                             myMethod.setMethodBody(myMethodBody);
                         }
                         myClass.addMethod(myMethod);
@@ -12,6 +12,7 @@ import com.intellij.psi.codeStyle.JavaCodeStyleManager;
 import com.intellij.psi.util.PsiTreeUtil;
 import org.eclipse.jdt.internal.compiler.ast.MarkerAnnotation;
 import org.jetbrains.research.intellijdeodorant.IntelliJDeodorantBundle;
+import org.jetbrains.research.intellijdeodorant.core.ast.SystemObject;
 import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.cfg.PlainVariable;
 import org.jetbrains.research.intellijdeodorant.core.ast.util.ExpressionExtractor;
 import org.jetbrains.research.intellijdeodorant.core.ast.util.MethodDeclarationUtility;
@@ -32,6 +33,7 @@ public class ExtractClassRefactoring {
     private static final String GETTER_PREFIX = "get";
     private static final String SETTER_PREFIX = "set";
     private static final String ACCESSOR_SUFFIX = "2";
+    private final SystemObject systemObject;
     private PsiJavaFile sourceFile;
     private PsiClass sourceTypeDeclaration;
     private Map<PsiMethod, Set<PlainVariable>> additionalArgumentsAddedToExtractedMethods;
@@ -106,7 +108,9 @@ public class ExtractClassRefactoring {
     private static final String CREATED_EXTRACTED_CLASS = IntelliJDeodorantBundle.message("god.class.preview.created.extracted.class");
 
     public ExtractClassRefactoring(PsiJavaFile sourceFile, PsiClass sourceTypeDeclaration,
-                                   Set<PsiField> extractedFieldFragments, Set<PsiMethod> extractedMethods, Set<PsiMethod> delegateMethods, String defaultExtractedTypeName) {
+                                   Set<PsiField> extractedFieldFragments, Set<PsiMethod> extractedMethods, Set<PsiMethod> delegateMethods, String defaultExtractedTypeName,
+                                   SystemObject systemObject) {
+        this.systemObject = systemObject;
         this.sourceFile = sourceFile;
         this.sourceTypeDeclaration = sourceTypeDeclaration;
         init(extractedFieldFragments, extractedMethods, delegateMethods, defaultExtractedTypeName);
@@ -1084,7 +1088,7 @@ public class ExtractClassRefactoring {
     }
 
     private PsiMethod findSetterMethodInSourceClass(PsiField fieldBinding) {
-        PsiClass typeDeclaration = RefactoringUtility.findDeclaringTypeDeclaration(fieldBinding, sourceTypeDeclaration);
+        PsiClass typeDeclaration = RefactoringUtility.findDeclaringTypeDeclaration(fieldBinding, sourceTypeDeclaration, systemObject);
         if (typeDeclaration != null) {
             PsiMethod[] contextMethods = typeDeclaration.getMethods();
             for (PsiMethod methodDeclaration : contextMethods) {
@@ -1098,7 +1102,7 @@ public class ExtractClassRefactoring {
     }
 
     private PsiMethod findGetterMethodInSourceClass(PsiField fieldBinding) {
-        PsiClass typeDeclaration = RefactoringUtility.findDeclaringTypeDeclaration(fieldBinding, sourceTypeDeclaration);
+        PsiClass typeDeclaration = RefactoringUtility.findDeclaringTypeDeclaration(fieldBinding, sourceTypeDeclaration, systemObject);
         if (typeDeclaration != null) {
             PsiMethod[] contextMethods = typeDeclaration.getMethods();
             for (PsiMethod methodDeclaration : contextMethods) {
@@ -1835,7 +1839,7 @@ public class ExtractClassRefactoring {
                                         PsiExpression newExpression = (PsiExpression) newMethodInvocation.replace(factory.createExpressionFromText(modifiedSourceTypeName + "." + newMethodInvocation.getText(), sourceMethod));
                                         newMethodInvocations.set(j, newExpression);
                                         if (!sourceMethodBindingsChangedWithPublicModifier.contains(methodBinding)) {
-                                            PsiClass superclassTypeDeclaration = RefactoringUtility.findDeclaringTypeDeclaration(superclassMethodBinding, sourceTypeDeclaration);
+                                            PsiClass superclassTypeDeclaration = RefactoringUtility.findDeclaringTypeDeclaration(superclassMethodBinding, sourceTypeDeclaration, systemObject);
                                             if (superclassTypeDeclaration != null) {
                                                 setPublicModifierToSourceMethod(methodInvocation.resolveMethod(), superclassTypeDeclaration);
                                             }
@@ -2198,7 +2202,7 @@ public class ExtractClassRefactoring {
     private boolean declaredInSourceTypeDeclarationOrSuperclass(PsiField variableBinding) {
         PsiField sourceField = sandboxToSourceFieldMap.get(variableBinding);
 
-        return RefactoringUtility.findDeclaringTypeDeclaration(sourceField, sourceTypeDeclaration) != null
+        return RefactoringUtility.findDeclaringTypeDeclaration(sourceField, sourceTypeDeclaration, systemObject) != null
                 && !extractedFieldFragments.contains(sourceField);
     }
 
@@ -2212,7 +2216,7 @@ public class ExtractClassRefactoring {
 
     private PsiParameter addParameterToMovedMethod(PsiMethod newMethodDeclaration, PlainVariable additionalArgument) {
         PsiParameter parameter;
-        PsiField field = RefactoringUtility.findFieldDeclaration(additionalArgument, sourceTypeDeclaration);
+        PsiField field = RefactoringUtility.findFieldDeclaration(additionalArgument, sourceTypeDeclaration, systemObject);
         PsiType fieldType = field.getType();
         String parameterName;
         if (additionalArgument.isField()) {
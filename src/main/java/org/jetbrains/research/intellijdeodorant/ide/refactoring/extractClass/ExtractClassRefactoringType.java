@@ -125,7 +125,8 @@ public class ExtractClassRefactoringType extends RefactoringType {
                     candidateRefactoring.getExtractedFieldFragments(),
                     candidateRefactoring.getExtractedMethods(),
                     candidateRefactoring.getDelegateMethods(),
-                    candidateRefactoring.getDefaultTargetClassName());
+                    candidateRefactoring.getDefaultTargetClassName(),
+                    candidateRefactoring.getSystemObject());
             return refactoring;
         }
 
@@ -6,9 +6,9 @@ import java.util.ArrayList;
 import java.util.HashSet;
 
 public abstract class Clustering {
-    protected double[][] distanceMatrix;
+    protected SymmetricDistanceMatrix distanceMatrix;
 
-    public static Clustering getInstance(double[][] distanceMatrix) {
+    public static Clustering getInstance(SymmetricDistanceMatrix distanceMatrix) {
         return new Hierarchical(distanceMatrix);
     }
 
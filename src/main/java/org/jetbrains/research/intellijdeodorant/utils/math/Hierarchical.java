@@ -5,124 +5,103 @@ import org.jetbrains.research.intellijdeodorant.core.distance.Entity;
 import java.util.ArrayList;
 import java.util.HashSet;
 
-import static org.jetbrains.research.intellijdeodorant.utils.math.DoubleArray.*;
-
+/**
+ * Single-linkage agglomerative clustering.
+ * A cluster is kept at the smallest index of its entities and remembers its nearest cluster among the smaller indices,
+ * so that finding the closest pair and merging it both take linear time and the distance matrix is updated in place.
+ * Ties are broken as in a row-major scan of the lower triangle of the distance matrix.
+ */
 public class Hierarchical extends Clustering {
 
     private final HashSet<Cluster> clusterSet;
 
-    public Hierarchical(double[][] distanceMatrix) {
+    public Hierarchical(SymmetricDistanceMatrix distanceMatrix) {
         this.distanceMatrix = distanceMatrix;
         this.clusterSet = new HashSet<>();
     }
 
     public HashSet<Cluster> clustering(ArrayList<Entity> entities) {
-        ArrayList<Cluster> clusters = new ArrayList<>();
-        for (Entity entity : entities) {
+        int size = entities.size();
+        Cluster[] clusters = new Cluster[size];
+        for (int i = 0; i < size; i++) {
             Cluster cluster = new Cluster();
-            cluster.addEntity(entity);
-            clusters.add(cluster);
+            cluster.addEntity(entities.get(i));
+            clusters[i] = cluster;
+        }
+        int[] nearest = new int[size];
+        double[] nearestDistance = new double[size];
+        for (int i = 0; i < size; i++) {
+            findNearest(clusters, i, nearest, nearestDistance);
         }
-        while (clusters.size() > 2) {
+        int clusterCount = size;
+        while (clusterCount > 2) {
             HashSet<Cluster> clustersNotPresentable = new HashSet<>();
             double minVal = 2.0;
-            int minRow = 0;
-            int minCol = 1;
-            for (int i = 1; i < distanceMatrix.length; i++) {
-                for (int j = 0; j < i; j++) {
-                    if (distanceMatrix[i][j] < minVal) {
-                        minVal = distanceMatrix[i][j];
-                        minRow = i;
-                        minCol = j;
-                    }
+            int minRow = -1;
+            for (int i = 1; i < size; i++) {
+                if (clusters[i] != null && nearest[i] >= 0 && nearestDistance[i] < minVal) {
+                    minVal = nearestDistance[i];
+                    minRow = i;
                 }
             }
 
             if (minVal >= 1.0)
                 break;
-            if (minRow < minCol) {
-                if (clusters.get(minCol).getEntities().size() == 1 && clusters.get(minRow).getEntities().size() > 1) {
-                    clustersNotPresentable.add(new Cluster(clusters.get(minRow).getEntities()));
-                } else if (clusters.get(minCol).getEntities().size() > 1 && clusters.get(minRow).getEntities().size() == 1) {
-                    clustersNotPresentable.add(new Cluster(clusters.get(minCol).getEntities()));
-                }
-                clusters.get(minRow).addEntities(clusters.get(minCol).getEntities());
-                double[] newDistances = new double[distanceMatrix.length - 1];
-                for (int i = 0; i < distanceMatrix.length; i++) {
-                    if (i != minCol) {
-                        if (i != minRow) {
-                            if (distanceMatrix[minRow][i] < distanceMatrix[minCol][i]) {
-                                if (i > minCol) {
-                                    newDistances[i - 1] = distanceMatrix[minRow][i];
-                                } else {
-                                    newDistances[i] = distanceMatrix[minRow][i];
-                                }
-                            } else {
-                                if (i > minCol) {
-                                    newDistances[i - 1] = distanceMatrix[minCol][i];
-                                } else {
-                                    newDistances[i] = distanceMatrix[minCol][i];
-                                }
-                            }
-                        } else {
-                            newDistances[i] = 0.0;
-                        }
-                    }
-                }
-                distanceMatrix = deleteRows(distanceMatrix, minRow, minCol);
-                distanceMatrix = deleteColumns(distanceMatrix, minCol);
-                distanceMatrix = insertRows(distanceMatrix, minRow, newDistances);
-                distanceMatrix = deleteColumns(distanceMatrix, minRow);
-                distanceMatrix = insertColumns(distanceMatrix, minRow, newDistances);
-                clusters.remove(minCol);
-            } else {
-                if (clusters.get(minRow).getEntities().size() == 1 && clusters.get(minCol).getEntities().size() > 1) {
-                    clustersNotPresentable.add(new Cluster(clusters.get(minCol).getEntities()));
-                } else if (clusters.get(minRow).getEntities().size() > 1 && clusters.get(minCol).getEntities().size() == 1) {
-                    clustersNotPresentable.add(new Cluster(clusters.get(minRow).getEntities()));
-                }
-                clusters.get(minCol).addEntities(clusters.get(minRow).getEntities());
-                double[] newDistances = new double[distanceMatrix.length - 1];
-                for (int i = 0; i < distanceMatrix.length; i++) {
-                    if (i != minRow) {
-                        if (i != minCol) {
-                            if (distanceMatrix[minRow][i] < distanceMatrix[minCol][i]) {
-                                if (i > minRow) {
-                                    newDistances[i - 1] = distanceMatrix[minRow][i];
-                                } else {
-                                    newDistances[i] = distanceMatrix[minRow][i];
-                                }
-                            } else {
-                                if (i > minRow) {
-                                    newDistances[i - 1] = distanceMatrix[minCol][i];
-                                } else {
-                                    newDistances[i] = distanceMatrix[minCol][i];
-                                }
-                            }
-                        } else {
-                            newDistances[i] = 0.0;
-                        }
-                    }
+            int minCol = nearest[minRow];
+            Cluster rowCluster = clusters[minRow];
+            Cluster colCluster = clusters[minCol];
+            if (rowCluster.getEntities().size() == 1 && colCluster.getEntities().size() > 1) {
+                clustersNotPresentable.add(new Cluster(colCluster.getEntities()));
+            } else if (rowCluster.getEntities().size() > 1 && colCluster.getEntities().size() == 1) {
+                clustersNotPresentable.add(new Cluster(rowCluster.getEntities()));
+            }
+            colCluster.addEntities(rowCluster.getEntities());
+            clusters[minRow] = null;
+            clusterCount--;
 
+            for (int i = 0; i < size; i++) {
+                if (clusters[i] != null && i != minCol) {
+                    distanceMatrix.set(minCol, i, Math.min(distanceMatrix.get(minRow, i), distanceMatrix.get(minCol, i)));
                 }
-                distanceMatrix = deleteRows(distanceMatrix, minRow, minCol);
-                distanceMatrix = deleteColumns(distanceMatrix, minRow);
-                distanceMatrix = insertRows(distanceMatrix, minCol, newDistances);
-                distanceMatrix = deleteColumns(distanceMatrix, minCol);
-                distanceMatrix = insertColumns(distanceMatrix, minCol, newDistances);
-                clusters.remove(minRow);
             }
-            clusterSet.removeAll(clustersNotPresentable);
-            for (Cluster cluster : clusters) {
-                if (!(clusters.size() == 2 && (clusters.get(0).getEntities().size() == 1 || clusters.get(1).getEntities().size() == 1))) {
-                    if (cluster.getEntities().size() > 1) {
-                        Cluster c = new Cluster(cluster.getEntities());
-                        clusterSet.add(c);
+            findNearest(clusters, minCol, nearest, nearestDistance);
+            for (int i = minCol + 1; i < size; i++) {
+                if (clusters[i] != null) {
+                    double distance = distanceMatrix.get(i, minCol);
+                    // a cluster that was nearest to the absorbed one is now nearest to the merged one
+                    if (nearest[i] == minRow || distance < nearestDistance[i]
+                            || (distance == nearestDistance[i] && minCol < nearest[i])) {
+                        nearest[i] = minCol;
+                        nearestDistance[i] = distance;
                     }
                 }
             }
+
+            clusterSet.removeAll(clustersNotPresentable);
+            if (!(clusterCount == 2 && hasSingletonCluster(clusters))) {
+                clusterSet.add(new Cluster(colCluster.getEntities()));
+            }
         }
         return clusterSet;
     }
 
+    private void findNearest(Cluster[] clusters, int index, int[] nearest, double[] nearestDistance) {
+        nearest[index] = -1;
+        nearestDistance[index] = Double.MAX_VALUE;
+        for (int j = 0; j < index; j++) {
+            if (clusters[j] != null && distanceMatrix.get(index, j) < nearestDistance[index]) {
+                nearest[index] = j;
+                nearestDistance[index] = distanceMatrix.get(index, j);
+            }
+        }
+    }
+
+    private static boolean hasSingletonCluster(Cluster[] clusters) {
+        for (Cluster cluster : clusters) {
+            if (cluster != null && cluster.getEntities().size() == 1) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,37 @@
+package org.jetbrains.research.intellijdeodorant.utils.math;
+
+/**
+ * Symmetric distance matrix with a zero diagonal, storing only the entries above the diagonal packed row by row.
+ */
+public class SymmetricDistanceMatrix {
+    private final int size;
+    private final double[] distances;
+
+    public SymmetricDistanceMatrix(int size) {
+        this.size = size;
+        this.distances = new double[size * (size - 1) / 2];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double get(int i, int j) {
+        if (i == j)
+            return 0.0;
+        return distances[index(i, j)];
+    }
+
+    public void set(int i, int j, double distance) {
+        distances[index(i, j)] = distance;
+    }
+
+    private int index(int i, int j) {
+        if (i > j) {
+            int temp = i;
+            i = j;
+            j = temp;
+        }
+        return i * (2 * size - i - 1) / 2 + (j - i - 1);
+    }
+}
@@ -0,0 +1,99 @@
+package org.jetbrains.research.intellijdeodorant.ast;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.progress.util.ProgressIndicatorBase;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.research.intellijdeodorant.core.ast.ASTReader;
+import org.jetbrains.research.intellijdeodorant.core.ast.ClassObject;
+import org.jetbrains.research.intellijdeodorant.core.ast.FieldInstructionObject;
+import org.jetbrains.research.intellijdeodorant.core.ast.SystemObject;
+import org.jetbrains.research.intellijdeodorant.core.distance.ProjectInfo;
+
+import java.util.List;
+
+public class ASTReaderTest extends LightJavaCodeInsightFixtureTestCase {
+    private PsiFile fileA;
+    private PsiFile fileB;
+    private ProjectInfo projectInfo;
+
+    @NotNull
+    @Override
+    protected LightProjectDescriptor getProjectDescriptor() {
+        return LightJavaCodeInsightFixtureTestCase.JAVA_8;
+    }
+
+    private ASTReader createReader() {
+        fileA = myFixture.addFileToProject("src/update/A.java", "package update;\n" +
+                "\n" +
+                "public class A {\n" +
+                "    private B b;\n" +
+                "\n" +
+                "    public long read() {\n" +
+                "        return b.count;\n" +
+                "    }\n" +
+                "}");
+        fileB = myFixture.addFileToProject("src/update/B.java", "package update;\n" +
+                "\n" +
+                "public class B {\n" +
+                "    int count;\n" +
+                "\n" +
+                "    public void increment() {\n" +
+                "        count++;\n" +
+                "    }\n" +
+                "}");
+        myFixture.allowTreeAccessForAllFiles();
+        projectInfo = new ProjectInfo(new AnalysisScope(getProject()), true);
+        return new ASTReader(projectInfo, new ProgressIndicatorBase());
+    }
+
+    private void replaceText(PsiFile file, String oldText, String newText) {
+        PsiDocumentManager documentManager = PsiDocumentManager.getInstance(getProject());
+        Document document = documentManager.getDocument(file);
+        int offset = document.getText().indexOf(oldText);
+        WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+            document.replaceString(offset, offset + oldText.length(), newText);
+            documentManager.commitDocument(document);
+        });
+    }
+
+    private static String getTypeOfReadField(SystemObject systemObject) {
+        List<FieldInstructionObject> fieldInstructions = systemObject.getClassObject("update.A")
+                .getMethodList().get(0).getFieldInstructions();
+        for (FieldInstructionObject fieldInstruction : fieldInstructions) {
+            if (fieldInstruction.getName().equals("count")) {
+                return fieldInstruction.getType().getClassType();
+            }
+        }
+        return null;
+    }
+
+    public void testMethodBodyEditReparsesOnlyModifiedFile() {
+        ASTReader reader = createReader();
+        ClassObject classA = reader.getSystemObject().getClassObject("update.A");
+        ClassObject classB = reader.getSystemObject().getClassObject("update.B");
+
+        replaceText(fileA, "return b.count;", "return b.count + 1;");
+        reader.update(projectInfo, new ProgressIndicatorBase());
+
+        assertNotSame(classA, reader.getSystemObject().getClassObject("update.A"));
+        assertSame(classB, reader.getSystemObject().getClassObject("update.B"));
+    }
+
+    public void testDeclarationEditUpdatesDependentClass() {
+        ASTReader reader = createReader();
+        ClassObject classA = reader.getSystemObject().getClassObject("update.A");
+        assertEquals("int", getTypeOfReadField(reader.getSystemObject()));
+
+        replaceText(fileB, "int count;", "long count;");
+        reader.update(projectInfo, new ProgressIndicatorBase());
+
+        assertNotSame(classA, reader.getSystemObject().getClassObject("update.A"));
+        assertEquals("long", getTypeOfReadField(reader.getSystemObject()));
+    }
+}
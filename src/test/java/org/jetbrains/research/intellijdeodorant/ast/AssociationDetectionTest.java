@@ -0,0 +1,87 @@
+package org.jetbrains.research.intellijdeodorant.ast;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.openapi.progress.util.ProgressIndicatorBase;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.research.intellijdeodorant.core.ast.ASTReader;
+import org.jetbrains.research.intellijdeodorant.core.ast.ClassObject;
+import org.jetbrains.research.intellijdeodorant.core.ast.FieldObject;
+import org.jetbrains.research.intellijdeodorant.core.ast.SystemObject;
+import org.jetbrains.research.intellijdeodorant.core.ast.association.Association;
+import org.jetbrains.research.intellijdeodorant.core.ast.association.AssociationDetection;
+import org.jetbrains.research.intellijdeodorant.core.distance.ProjectInfo;
+
+import java.util.*;
+
+public class AssociationDetectionTest extends LightJavaCodeInsightFixtureTestCase {
+    @NotNull
+    @Override
+    protected LightProjectDescriptor getProjectDescriptor() {
+        return LightJavaCodeInsightFixtureTestCase.JAVA_8;
+    }
+
+    private SystemObject createSystemObject() {
+        myFixture.addFileToProject("src/assoc/Item.java", "package assoc;\n" +
+                "\n" +
+                "public class Item {\n" +
+                "}");
+        myFixture.addFileToProject("src/assoc/ItemGroup.java", "package assoc;\n" +
+                "\n" +
+                "public class ItemGroup {\n" +
+                "}");
+        myFixture.addFileToProject("src/assoc/Tag.java", "package assoc;\n" +
+                "\n" +
+                "public class Tag {\n" +
+                "}");
+        myFixture.addFileToProject("src/assoc/Store.java", "package assoc;\n" +
+                "\n" +
+                "import java.util.*;\n" +
+                "\n" +
+                "public class Store {\n" +
+                "    private List<Item> items;\n" +
+                "    private Set<List<ItemGroup>> groups;\n" +
+                "    private Collection<? super Tag> tags;\n" +
+                "    private Item[] array;\n" +
+                "    private ItemGroup single;\n" +
+                "    private List<String> names;\n" +
+                "}");
+        myFixture.allowTreeAccessForAllFiles();
+        ProjectInfo projectInfo = new ProjectInfo(new AnalysisScope(getProject()), true);
+        return new ASTReader(projectInfo, new ProgressIndicatorBase()).getSystemObject();
+    }
+
+    private static FieldObject getField(ClassObject classObject, String name) {
+        ListIterator<FieldObject> fieldIterator = classObject.getFieldIterator();
+        while (fieldIterator.hasNext()) {
+            FieldObject field = fieldIterator.next();
+            if (field.getName().equals(name))
+                return field;
+        }
+        throw new AssertionError("Field " + name + " not found");
+    }
+
+    public void testTypeArgumentsOfCollectionFields() {
+        SystemObject systemObject = createSystemObject();
+        ClassObject store = systemObject.getClassObject("assoc.Store");
+        AssociationDetection associationDetection = new AssociationDetection(systemObject);
+
+        Set<String> associations = new TreeSet<>();
+        for (Association association : associationDetection.getAssociationsOfClass(store)) {
+            associations.add(association.getFieldObject().getName() + " " + association);
+        }
+        //ItemGroup in the nested type argument of groups must not be taken for Item
+        assertEquals(new TreeSet<>(Arrays.asList(
+                "array assoc.Store -->(*) assoc.Item",
+                "groups assoc.Store -->(*) assoc.ItemGroup",
+                "items assoc.Store -->(*) assoc.Item",
+                "single assoc.Store -->(1) assoc.ItemGroup",
+                "tags assoc.Store -->(*) assoc.Tag")), associations);
+
+        assertTrue(associationDetection.containsFieldObject(getField(store, "groups")));
+        assertFalse(associationDetection.containsFieldObject(getField(store, "names")));
+        assertEquals("tags", associationDetection.getAssociation("assoc.Store", "assoc.Tag").getFieldObject().getName());
+        assertNull(associationDetection.getAssociation("assoc.Item", "assoc.Store"));
+    }
+}
@@ -50,8 +50,7 @@ public class FieldAccessTest extends LightJavaCodeInsightFixtureTestCase {
         Project project = myFixture.getProject();
         ProjectInfo projectInfo = new ProjectInfo(new AnalysisScope(project), false);
 
-        new ASTReader(projectInfo, new ProgressIndicatorBase());
-        SystemObject systemObject = ASTReader.getSystemObject();
+        SystemObject systemObject = new ASTReader(projectInfo, new ProgressIndicatorBase()).getSystemObject();
         MySystem mySystem = new MySystem(systemObject, true);
         MyClass myClass = mySystem.getClassIterator().next();
 
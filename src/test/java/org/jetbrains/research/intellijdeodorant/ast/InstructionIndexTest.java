@@ -0,0 +1,192 @@
+package org.jetbrains.research.intellijdeodorant.ast;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.openapi.progress.util.ProgressIndicatorBase;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.research.intellijdeodorant.core.ast.*;
+import org.jetbrains.research.intellijdeodorant.core.distance.ProjectInfo;
+
+import java.util.LinkedHashSet;
+import java.util.ListIterator;
+import java.util.Set;
+
+/**
+ * The indexed {@code contains*} queries of {@link SystemObject} and {@link ClassObject} must answer
+ * like a scan over the method list of every class.
+ */
+public class InstructionIndexTest extends LightJavaCodeInsightFixtureTestCase {
+    @NotNull
+    @Override
+    protected LightProjectDescriptor getProjectDescriptor() {
+        return LightJavaCodeInsightFixtureTestCase.JAVA_8;
+    }
+
+    private SystemObject createSystemObject() {
+        myFixture.addFileToProject("src/index/Account.java", "package index;\n" +
+                "\n" +
+                "public class Account {\n" +
+                "    int balance;\n" +
+                "    int limit;\n" +
+                "\n" +
+                "    void deposit(int amount) {\n" +
+                "        balance += amount;\n" +
+                "        audit();\n" +
+                "    }\n" +
+                "\n" +
+                "    void withdraw(int amount) {\n" +
+                "        if (amount < limit) {\n" +
+                "            balance -= amount;\n" +
+                "            audit();\n" +
+                "        }\n" +
+                "    }\n" +
+                "\n" +
+                "    void audit() {}\n" +
+                "}");
+        myFixture.addFileToProject("src/index/Bank.java", "package index;\n" +
+                "\n" +
+                "public class Bank {\n" +
+                "    Account account;\n" +
+                "\n" +
+                "    void pay(int amount) {\n" +
+                "        account.withdraw(amount);\n" +
+                "    }\n" +
+                "\n" +
+                "    int report() {\n" +
+                "        account.audit();\n" +
+                "        return account.balance;\n" +
+                "    }\n" +
+                "}");
+        myFixture.addFileToProject("src/index/Branch.java", "package index;\n" +
+                "\n" +
+                "public class Branch extends Bank {\n" +
+                "    @Override\n" +
+                "    void pay(int amount) {\n" +
+                "        super.pay(amount);\n" +
+                "        account.deposit(amount);\n" +
+                "    }\n" +
+                "}");
+        myFixture.allowTreeAccessForAllFiles();
+        ProjectInfo projectInfo = new ProjectInfo(new AnalysisScope(getProject()), true);
+        return new ASTReader(projectInfo, new ProgressIndicatorBase()).getSystemObject();
+    }
+
+    private static boolean scanMethodInvocation(SystemObject systemObject, MethodInvocationObject methodInvocation, ClassObject excludedClass) {
+        for (ClassObject classObject : systemObject.getClassObjects()) {
+            if (!classObject.equals(excludedClass)) {
+                for (MethodObject method : classObject.getMethodList()) {
+                    if (method.getMethodInvocations().contains(methodInvocation))
+                        return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean scanFieldInstruction(SystemObject systemObject, FieldInstructionObject fieldInstruction, ClassObject excludedClass) {
+        for (ClassObject classObject : systemObject.getClassObjects()) {
+            if (!classObject.equals(excludedClass)) {
+                for (MethodObject method : classObject.getMethodList()) {
+                    if (method.getFieldInstructions().contains(fieldInstruction))
+                        return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean scanMethodInvocation(ClassObject classObject, MethodInvocationObject methodInvocation, MethodObject excludedMethod) {
+        for (MethodObject method : classObject.getMethodList()) {
+            if (!method.equals(excludedMethod) && method.getMethodInvocations().contains(methodInvocation))
+                return true;
+        }
+        return false;
+    }
+
+    public void testSystemQueriesMatchScan() {
+        SystemObject systemObject = createSystemObject();
+        Set<MethodInvocationObject> methodInvocations = new LinkedHashSet<>();
+        Set<FieldInstructionObject> fieldInstructions = new LinkedHashSet<>();
+        Set<SuperMethodInvocationObject> superMethodInvocations = new LinkedHashSet<>();
+        for (ClassObject classObject : systemObject.getClassObjects()) {
+            for (MethodObject method : classObject.getMethodList()) {
+                methodInvocations.addAll(method.getMethodInvocations());
+                fieldInstructions.addAll(method.getFieldInstructions());
+                superMethodInvocations.addAll(method.getSuperMethodInvocations());
+            }
+        }
+        assertFalse(methodInvocations.isEmpty());
+        assertFalse(fieldInstructions.isEmpty());
+        assertEquals(1, superMethodInvocations.size());
+
+        for (ClassObject excludedClass : systemObject.getClassObjects()) {
+            for (MethodInvocationObject methodInvocation : methodInvocations) {
+                assertEquals(methodInvocation + " outside " + excludedClass.getName(),
+                        scanMethodInvocation(systemObject, methodInvocation, excludedClass),
+                        systemObject.containsMethodInvocation(methodInvocation, excludedClass));
+            }
+            for (FieldInstructionObject fieldInstruction : fieldInstructions) {
+                assertEquals(fieldInstruction + " outside " + excludedClass.getName(),
+                        scanFieldInstruction(systemObject, fieldInstruction, excludedClass),
+                        systemObject.containsFieldInstruction(fieldInstruction, excludedClass));
+            }
+        }
+        for (SuperMethodInvocationObject superMethodInvocation : superMethodInvocations) {
+            assertTrue(systemObject.containsSuperMethodInvocation(superMethodInvocation));
+        }
+    }
+
+    public void testInvokersAndAccessorsOfMembers() {
+        SystemObject systemObject = createSystemObject();
+        ClassObject account = systemObject.getClassObject("index.Account");
+        ClassObject bank = systemObject.getClassObject("index.Bank");
+        ClassObject branch = systemObject.getClassObject("index.Branch");
+
+        MethodObject audit = null;
+        for (MethodObject method : account.getMethodList()) {
+            if (method.getName().equals("audit"))
+                audit = method;
+        }
+        assertNotNull(audit);
+        MethodInvocationObject auditInvocation = audit.generateMethodInvocation();
+        //audit is invoked in Account and Bank, but not in Branch
+        assertTrue(systemObject.containsMethodInvocation(auditInvocation, account));
+        assertTrue(systemObject.containsMethodInvocation(auditInvocation, bank));
+        assertTrue(systemObject.containsMethodInvocation(auditInvocation, branch));
+        assertTrue(branch.getMethodList().stream().noneMatch(method -> method.getMethodInvocations().contains(auditInvocation)));
+
+        FieldInstructionObject limit = null;
+        FieldInstructionObject balance = null;
+        ListIterator<FieldObject> fieldIterator = account.getFieldIterator();
+        while (fieldIterator.hasNext()) {
+            FieldObject field = fieldIterator.next();
+            if (field.getName().equals("limit"))
+                limit = field.generateFieldInstruction();
+            else if (field.getName().equals("balance"))
+                balance = field.generateFieldInstruction();
+        }
+        assertNotNull(limit);
+        assertNotNull(balance);
+        //limit is only accessed inside Account, balance also by Bank
+        assertFalse(systemObject.containsFieldInstruction(limit, account));
+        assertTrue(systemObject.containsFieldInstruction(limit, bank));
+        assertTrue(systemObject.containsFieldInstruction(balance, account));
+        assertTrue(systemObject.containsFieldInstruction(balance, bank));
+
+        for (ClassObject classObject : systemObject.getClassObjects()) {
+            for (MethodObject excludedMethod : classObject.getMethodList()) {
+                for (MethodObject method : classObject.getMethodList()) {
+                    for (MethodInvocationObject methodInvocation : method.getMethodInvocations()) {
+                        assertEquals(scanMethodInvocation(classObject, methodInvocation, excludedMethod),
+                                classObject.containsMethodInvocation(methodInvocation, excludedMethod));
+                    }
+                }
+                assertEquals(scanMethodInvocation(classObject, auditInvocation, null),
+                        classObject.containsMethodInvocation(auditInvocation));
+            }
+        }
+        //audit is invoked by both deposit and withdraw
+        assertTrue(account.containsMethodInvocation(auditInvocation, audit));
+    }
+}
@@ -0,0 +1,176 @@
+package org.jetbrains.research.intellijdeodorant.ast;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.openapi.progress.util.ProgressIndicatorBase;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.research.intellijdeodorant.core.ast.*;
+import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.AbstractMethodFragment;
+import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.AbstractStatement;
+import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.CompositeStatementObject;
+import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.TryStatementObject;
+import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.cfg.AbstractVariable;
+import org.jetbrains.research.intellijdeodorant.core.distance.ProjectInfo;
+
+import java.util.*;
+
+/**
+ * The instructions of a fragment are windows of the log of its method, except for catch and finally bodies,
+ * which are not part of the method body and keep logs of their own.
+ */
+public class MethodFragmentInstructionsTest extends LightJavaCodeInsightFixtureTestCase {
+    @NotNull
+    @Override
+    protected LightProjectDescriptor getProjectDescriptor() {
+        return LightJavaCodeInsightFixtureTestCase.JAVA_8;
+    }
+
+    private MethodObject createMethod() {
+        myFixture.addFileToProject("src/fragments/Helper.java", "package fragments;\n" +
+                "\n" +
+                "public class Helper {\n" +
+                "    void start() {}\n" +
+                "    void step(int i) {}\n" +
+                "    int result() { return 0; }\n" +
+                "    void fail() {}\n" +
+                "    void stop() {}\n" +
+                "}");
+        myFixture.addFileToProject("src/fragments/Fragments.java", "package fragments;\n" +
+                "\n" +
+                "public class Fragments {\n" +
+                "    private Helper helper;\n" +
+                "    private int count;\n" +
+                "    private int total;\n" +
+                "\n" +
+                "    void run(int n) {\n" +
+                "        helper.start();\n" +
+                "        for (int i = 0; i < n; i++) {\n" +
+                "            if (i > count) {\n" +
+                "                helper.step(i);\n" +
+                "                log(i);\n" +
+                "            }\n" +
+                "        }\n" +
+                "        try {\n" +
+                "            int r = helper.result();\n" +
+                "            total = r;\n" +
+                "            log(total);\n" +
+                "        } catch (IllegalStateException e) {\n" +
+                "            helper.fail();\n" +
+                "            count = 0;\n" +
+                "        } finally {\n" +
+                "            helper.stop();\n" +
+                "            log(count);\n" +
+                "        }\n" +
+                "        helper.step(n);\n" +
+                "        log(n);\n" +
+                "    }\n" +
+                "\n" +
+                "    void log(int value) {}\n" +
+                "}");
+        myFixture.allowTreeAccessForAllFiles();
+        ProjectInfo projectInfo = new ProjectInfo(new AnalysisScope(getProject()), true);
+        SystemObject systemObject = new ASTReader(projectInfo, new ProgressIndicatorBase()).getSystemObject();
+        for (MethodObject methodObject : systemObject.getClassObject("fragments.Fragments").getMethodList()) {
+            if (methodObject.getName().equals("run")) {
+                return methodObject;
+            }
+        }
+        throw new AssertionError("Method run not found");
+    }
+
+    private static <T extends AbstractStatement> T statement(MethodObject method, Class<T> type) {
+        for (AbstractStatement statement : method.getMethodBody().getCompositeStatement().getStatements()) {
+            if (type.isInstance(statement))
+                return type.cast(statement);
+        }
+        throw new AssertionError(type.getSimpleName() + " not found");
+    }
+
+    private static List<String> invocationNames(Collection<MethodInvocationObject> methodInvocations) {
+        List<String> names = new ArrayList<>();
+        for (MethodInvocationObject methodInvocation : methodInvocations) {
+            names.add(methodInvocation.getMethodName());
+        }
+        return names;
+    }
+
+    private static List<String> fieldNames(Collection<FieldInstructionObject> fieldInstructions) {
+        List<String> names = new ArrayList<>();
+        for (FieldInstructionObject fieldInstruction : fieldInstructions) {
+            names.add(fieldInstruction.getName());
+        }
+        return names;
+    }
+
+    private static List<String> variableNames(Collection<? extends AbstractVariable> variables) {
+        List<String> names = new ArrayList<>();
+        for (AbstractVariable variable : variables) {
+            names.add(variable.getName());
+        }
+        return names;
+    }
+
+    private static Map<String, List<String>> groupedInvocationNames(Map<AbstractVariable, ? extends Collection<MethodInvocationObject>> invocations) {
+        Map<String, List<String>> names = new LinkedHashMap<>();
+        for (Map.Entry<AbstractVariable, ? extends Collection<MethodInvocationObject>> entry : invocations.entrySet()) {
+            names.put(entry.getKey().getName(), invocationNames(entry.getValue()));
+        }
+        return names;
+    }
+
+    public void testMethodInstructionsSkipCatchAndFinallyBodies() {
+        MethodObject method = createMethod();
+        assertEquals(Arrays.asList("start", "step", "log", "result", "log", "step", "log"),
+                invocationNames(method.getMethodInvocations()));
+        assertEquals(Arrays.asList("helper", "count", "helper", "helper", "total", "total", "helper"),
+                fieldNames(method.getFieldInstructions()));
+
+        assertEquals(Collections.singletonList("log"), invocationNames(method.getInvokedMethodsThroughThisReference()));
+        assertEquals(Arrays.asList("log", "log", "log"), invocationNames(method.getNonDistinctInvokedMethodsThroughThisReference()));
+        assertEquals(Collections.singletonMap("helper", Arrays.asList("start", "step", "result")),
+                groupedInvocationNames(method.getInvokedMethodsThroughFields()));
+        assertEquals(Collections.singletonMap("helper", Arrays.asList("start", "step", "result", "step")),
+                groupedInvocationNames(method.getNonDistinctInvokedMethodsThroughFields()));
+        assertEquals(Collections.singletonList("total"), variableNames(method.getDefinedFieldsThroughThisReference()));
+        assertEquals(Collections.singletonList("total"), variableNames(method.getNonDistinctDefinedFieldsThroughThisReference()));
+    }
+
+    public void testNestedStatementsSeeTheirOwnInstructions() {
+        MethodObject method = createMethod();
+        CompositeStatementObject forStatement = statement(method, CompositeStatementObject.class);
+        assertEquals(Arrays.asList("step", "log"), invocationNames(forStatement.getMethodInvocations()));
+        assertEquals(Arrays.asList("count", "helper"), fieldNames(forStatement.getFieldInstructions()));
+        assertEquals(Collections.singletonMap("helper", Collections.singletonList("step")),
+                groupedInvocationNames(forStatement.getInvokedMethodsThroughFields()));
+
+        TryStatementObject tryStatement = statement(method, TryStatementObject.class);
+        assertEquals(Arrays.asList("result", "log"), invocationNames(tryStatement.getMethodInvocations()));
+        assertEquals(Arrays.asList("helper", "total", "total"), fieldNames(tryStatement.getFieldInstructions()));
+        assertEquals(Collections.singletonList("total"), variableNames(tryStatement.getDefinedFieldsThroughThisReference()));
+    }
+
+    public void testCatchAndFinallyBodiesKeepTheirOwnInstructions() {
+        MethodObject method = createMethod();
+        TryStatementObject tryStatement = statement(method, TryStatementObject.class);
+
+        AbstractMethodFragment catchBody = tryStatement.getCatchClauses().get(0).getBody();
+        assertEquals(Collections.singletonList("fail"), invocationNames(catchBody.getMethodInvocations()));
+        assertEquals(Arrays.asList("helper", "count"), fieldNames(catchBody.getFieldInstructions()));
+        assertEquals(Collections.singletonMap("helper", Collections.singletonList("fail")),
+                groupedInvocationNames(catchBody.getNonDistinctInvokedMethodsThroughFields()));
+        assertEquals(Collections.singletonList("count"), variableNames(catchBody.getDefinedFieldsThroughThisReference()));
+        assertTrue(catchBody.getInvokedMethodsThroughThisReference().isEmpty());
+
+        AbstractMethodFragment finallyBody = tryStatement.getFinallyClause();
+        assertEquals(Arrays.asList("stop", "log"), invocationNames(finallyBody.getMethodInvocations()));
+        assertEquals(Arrays.asList("helper", "count"), fieldNames(finallyBody.getFieldInstructions()));
+        assertEquals(Collections.singletonList("log"), invocationNames(finallyBody.getInvokedMethodsThroughThisReference()));
+        assertTrue(finallyBody.getDefinedFieldsThroughThisReference().isEmpty());
+
+        //reading the bodies does not change what the method reports
+        assertEquals(Arrays.asList("start", "step", "log", "result", "log", "step", "log"),
+                invocationNames(method.getMethodInvocations()));
+        assertEquals(Collections.singletonList("log"), invocationNames(method.getInvokedMethodsThroughThisReference()));
+    }
+}
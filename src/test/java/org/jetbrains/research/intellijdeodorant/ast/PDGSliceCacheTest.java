@@ -0,0 +1,63 @@
+package org.jetbrains.research.intellijdeodorant.ast;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.research.intellijdeodorant.core.ast.decomposition.cfg.PDGSliceCache;
+
+import java.util.Collections;
+
+public class PDGSliceCacheTest extends LightJavaCodeInsightFixtureTestCase {
+    @NotNull
+    @Override
+    protected LightProjectDescriptor getProjectDescriptor() {
+        return LightJavaCodeInsightFixtureTestCase.JAVA_8;
+    }
+
+    private static PsiMethod getMethod(PsiFile file) {
+        return ((PsiJavaFile) file).getClasses()[0].getMethods()[0];
+    }
+
+    public void testEditingMethodBodyInvalidatesOnlyThatMethod() {
+        PsiFile fileA = myFixture.addFileToProject("src/cache/A.java", "package cache;\n" +
+                "\n" +
+                "public class A {\n" +
+                "    int m(int x) {\n" +
+                "        int y = x + 1;\n" +
+                "        return y;\n" +
+                "    }\n" +
+                "}");
+        PsiFile fileB = myFixture.addFileToProject("src/cache/B.java", "package cache;\n" +
+                "\n" +
+                "public class B {\n" +
+                "    int n(int x) {\n" +
+                "        return x * 2;\n" +
+                "    }\n" +
+                "}");
+        PsiMethod methodA = getMethod(fileA);
+        PsiMethod methodB = getMethod(fileB);
+
+        PDGSliceCache cache = new PDGSliceCache();
+        cache.put(methodA, Collections.emptySet(), Collections.emptyList());
+        cache.put(methodB, Collections.emptySet(), Collections.emptyList());
+        assertNotNull(cache.get(methodA, Collections.emptySet()));
+        assertNotNull(cache.get(methodB, Collections.emptySet()));
+
+        PsiDocumentManager documentManager = PsiDocumentManager.getInstance(getProject());
+        Document document = documentManager.getDocument(fileA);
+        int offset = methodA.getBody().getStatements()[1].getTextRange().getStartOffset();
+        WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+            document.replaceString(offset, offset, "y++;\n        ");
+            documentManager.commitDocument(document);
+        });
+
+        assertNull(cache.get(methodA, Collections.emptySet()));
+        assertNotNull(cache.get(methodB, Collections.emptySet()));
+    }
+}
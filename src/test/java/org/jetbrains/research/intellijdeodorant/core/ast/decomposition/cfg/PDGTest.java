@@ -0,0 +1,310 @@
+package org.jetbrains.research.intellijdeodorant.core.ast.decomposition.cfg;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.openapi.progress.util.ProgressIndicatorBase;
+import com.intellij.psi.PsiStatement;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.research.intellijdeodorant.core.ast.ASTReader;
+import org.jetbrains.research.intellijdeodorant.core.ast.ClassObject;
+import org.jetbrains.research.intellijdeodorant.core.ast.MethodObject;
+import org.jetbrains.research.intellijdeodorant.core.ast.SystemObject;
+import org.jetbrains.research.intellijdeodorant.core.distance.ProjectInfo;
+
+import java.util.*;
+
+public class PDGTest extends LightJavaCodeInsightFixtureTestCase {
+    private static final String METHODS = "package pdg;\n" +
+            "\n" +
+            "public class Methods {\n" +
+            "    int straightLine(int a) {\n" +
+            "        int x = a;\n" +
+            "        int y = x + 1;\n" +
+            "        x = y * 2;\n" +
+            "        return x;\n" +
+            "    }\n" +
+            "\n" +
+            "    int whileLoop(int n) {\n" +
+            "        int s = 0;\n" +
+            "        int i = 0;\n" +
+            "        while (i < n) {\n" +
+            "            s = s + i;\n" +
+            "            i++;\n" +
+            "        }\n" +
+            "        return s;\n" +
+            "    }\n" +
+            "\n" +
+            "    int doWhileWithBreak(int n) {\n" +
+            "        int i = 0;\n" +
+            "        int last = -1;\n" +
+            "        do {\n" +
+            "            if (i == n) {\n" +
+            "                break;\n" +
+            "            }\n" +
+            "            last = i;\n" +
+            "            i++;\n" +
+            "        } while (i < 10);\n" +
+            "        return last;\n" +
+            "    }\n" +
+            "\n" +
+            "    int nestedLoops(int n) {\n" +
+            "        int sum = 0;\n" +
+            "        int i = 0;\n" +
+            "        while (i < n) {\n" +
+            "            int j = 0;\n" +
+            "            while (j < i) {\n" +
+            "                sum += j;\n" +
+            "                j++;\n" +
+            "            }\n" +
+            "            i++;\n" +
+            "        }\n" +
+            "        return sum;\n" +
+            "    }\n" +
+            "\n" +
+            "    void labeledBreak(int n) {\n" +
+            "        int i = 0;\n" +
+            "        outer:\n" +
+            "        while (i < n) {\n" +
+            "            int j = 0;\n" +
+            "            while (j < n) {\n" +
+            "                if (j == i) {\n" +
+            "                    break outer;\n" +
+            "                }\n" +
+            "                j++;\n" +
+            "            }\n" +
+            "            i++;\n" +
+            "        }\n" +
+            "    }\n" +
+            "}";
+
+    @NotNull
+    @Override
+    protected LightProjectDescriptor getProjectDescriptor() {
+        return LightJavaCodeInsightFixtureTestCase.JAVA_8;
+    }
+
+    private PDG createPDG(String methodName) {
+        myFixture.addFileToProject("src/pdg/Methods.java", METHODS);
+        myFixture.allowTreeAccessForAllFiles();
+        ProjectInfo projectInfo = new ProjectInfo(new AnalysisScope(getProject()), true);
+        SystemObject systemObject = new ASTReader(projectInfo, new ProgressIndicatorBase()).getSystemObject();
+        ClassObject classObject = systemObject.getClassObject("pdg.Methods");
+        for (MethodObject methodObject : classObject.getMethodList()) {
+            if (methodObject.getName().equals(methodName)) {
+                return new PDG(new CFG(methodObject), classObject.getPsiFile(),
+                        classObject.getFieldsAccessedInsideMethod(methodObject, systemObject));
+            }
+        }
+        throw new AssertionError("Method " + methodName + " not found");
+    }
+
+    //the first line of the statement of the node, without the opening brace of its body
+    private static String label(PDGNode node) {
+        if (node instanceof PDGMethodEntryNode)
+            return "entry";
+        return label(node.getASTStatement());
+    }
+
+    private static String label(PsiStatement statement) {
+        return statement.getText().split("\\{")[0].replaceAll("\\s+", " ").trim();
+    }
+
+    private static String describe(GraphEdge edge) {
+        PDGDependence dependence = (PDGDependence) edge;
+        String src = label((PDGNode) dependence.src);
+        String dst = label((PDGNode) dependence.dst);
+        if (dependence instanceof PDGAbstractDataDependence) {
+            PDGAbstractDataDependence dataDependence = (PDGAbstractDataDependence) dependence;
+            String description = dependence.getType() + " " + dataDependence.getData().getName() + ": " + src + " -> " + dst;
+            if (dataDependence.isLoopCarried())
+                description += " @" + label(dataDependence.getLoop().getASTStatement());
+            return description;
+        }
+        return dependence.getType() + ": " + src + " -> " + dst;
+    }
+
+    private static Set<String> describeEdges(PDG pdg) {
+        Set<String> descriptions = new TreeSet<>();
+        for (GraphEdge edge : pdg.edges) {
+            descriptions.add(describe(edge));
+        }
+        return descriptions;
+    }
+
+    private static void assertEdges(PDG pdg, String... expectedEdges) {
+        Set<String> edges = describeEdges(pdg);
+        for (String expectedEdge : expectedEdges) {
+            assertTrue("Missing " + expectedEdge + " in " + edges, edges.contains(expectedEdge));
+        }
+    }
+
+    private static void assertNoEdges(PDG pdg, String... unexpectedEdges) {
+        Set<String> edges = describeEdges(pdg);
+        for (String unexpectedEdge : unexpectedEdges) {
+            assertFalse("Unexpected " + unexpectedEdge + " in " + edges, edges.contains(unexpectedEdge));
+        }
+    }
+
+    private static PDGNode node(PDG pdg, String label) {
+        for (GraphNode node : pdg.nodes) {
+            if (label((PDGNode) node).equals(label))
+                return (PDGNode) node;
+        }
+        throw new AssertionError("Node " + label + " not found");
+    }
+
+    private static AbstractVariable variable(PDG pdg, String name) {
+        for (GraphNode node : pdg.nodes) {
+            for (AbstractVariable variable : ((PDGNode) node).definedVariables) {
+                if (variable.getName().equals(name))
+                    return variable;
+            }
+        }
+        throw new AssertionError("Variable " + name + " not found");
+    }
+
+    private static List<String> labels(Collection<PDGNode> nodes) {
+        List<String> labels = new ArrayList<>();
+        for (PDGNode node : new TreeSet<>(nodes)) {
+            labels.add(label(node));
+        }
+        return labels;
+    }
+
+    private static List<Integer> ids(Collection<BasicBlock> blocks) {
+        List<Integer> ids = new ArrayList<>();
+        for (BasicBlock block : blocks) {
+            ids.add(block.getId());
+        }
+        return ids;
+    }
+
+    public void testStraightLineDependences() {
+        PDG pdg = createPDG("straightLine");
+        assertEdges(pdg,
+                "DATA a: entry -> int x = a;",
+                "DATA x: int x = a; -> int y = x + 1;",
+                "DATA y: int y = x + 1; -> x = y * 2;",
+                "DATA x: x = y * 2; -> return x;",
+                "ANTI x: int y = x + 1; -> x = y * 2;",
+                "OUTPUT x: int x = a; -> x = y * 2;");
+        //the definition is killed by the assignment before the return statement
+        assertNoEdges(pdg, "DATA x: int x = a; -> return x;");
+        for (String edge : describeEdges(pdg)) {
+            assertFalse("Loop-carried " + edge + " in a method without loops", edge.contains("@"));
+        }
+    }
+
+    public void testWhileLoopDependences() {
+        PDG pdg = createPDG("whileLoop");
+        assertEdges(pdg,
+                "DATA s: int s = 0; -> s = s + i;",
+                "DATA s: int s = 0; -> return s;",
+                "DATA i: int i = 0; -> while (i < n)",
+                "DATA i: i++; -> while (i < n) @while (i < n)",
+                "DATA i: i++; -> s = s + i; @while (i < n)",
+                "DATA s: s = s + i; -> s = s + i; @while (i < n)",
+                "DATA s: s = s + i; -> return s; @while (i < n)",
+                "OUTPUT s: s = s + i; -> s = s + i; @while (i < n)",
+                "ANTI i: while (i < n) -> i++;",
+                "ANTI i: s = s + i; -> i++;");
+        assertNoEdges(pdg,
+                "DATA i: i++; -> s = s + i;",
+                "DATA s: s = s + i; -> return s;");
+    }
+
+    public void testDoWhileWithBreakDependences() {
+        PDG pdg = createPDG("doWhileWithBreak");
+        assertEdges(pdg,
+                "DATA i: int i = 0; -> if (i == n)",
+                "DATA i: int i = 0; -> last = i;",
+                "DATA i: i++; -> do",
+                "DATA i: i++; -> if (i == n) @do",
+                "DATA i: i++; -> last = i; @do",
+                "DATA last: last = i; -> return last;",
+                "OUTPUT i: int i = 0; -> i++;",
+                "OUTPUT i: i++; -> i++; @do",
+                "OUTPUT last: int last = -1; -> last = i;",
+                "ANTI i: last = i; -> i++;",
+                "ANTI i: do -> i++; @do");
+        //the break jumps out of the innermost loop, so it controls the statements after it in the loop body
+        assertEdges(pdg,
+                "CONTROL: break; -> do",
+                "CONTROL: break; -> last = i;",
+                "CONTROL: break; -> i++;");
+        assertNoEdges(pdg, "DATA last: last = i; -> return last; @do");
+    }
+
+    public void testNestedLoopDependences() {
+        PDG pdg = createPDG("nestedLoops");
+        assertEdges(pdg,
+                "DATA sum: int sum = 0; -> sum += j;",
+                "DATA j: int j = 0; -> while (j < i)",
+                "DATA j: j++; -> while (j < i) @while (j < i)",
+                "DATA sum: sum += j; -> sum += j; @while (j < i)",
+                "DATA i: i++; -> while (i < n) @while (i < n)",
+                "DATA i: i++; -> while (j < i) @while (i < n)",
+                "DATA sum: sum += j; -> return sum; @while (i < n)",
+                "OUTPUT j: j++; -> int j = 0; @while (i < n)",
+                "ANTI j: while (j < i) -> int j = 0; @while (i < n)",
+                "ANTI j: sum += j; -> j++;");
+        //a dependence reaching the inner loop again without leaving it is carried by the inner loop only
+        assertNoEdges(pdg,
+                "DATA j: j++; -> while (j < i) @while (i < n)",
+                "DATA sum: sum += j; -> sum += j; @while (i < n)");
+    }
+
+    public void testLabeledBreakControlsOuterLoop() {
+        PDG pdg = createPDG("labeledBreak");
+        assertEdges(pdg,
+                "CONTROL: break outer; -> while (i < n)",
+                "CONTROL: break outer; -> i++;");
+        assertNoEdges(pdg,
+                "CONTROL: break outer; -> while (j < n)",
+                "CONTROL: break outer; -> j++;");
+    }
+
+    public void testBoundaryBlocks() {
+        PDG pdg = createPDG("whileLoop");
+        PDGNode loopBodyNode = node(pdg, "s = s + i;");
+        PDGNode returnNode = node(pdg, "return s;");
+        assertEquals(Arrays.asList(1, 2, 3), ids(pdg.boundaryBlocks(loopBodyNode)));
+        assertEquals(Arrays.asList(1, 2, 4), ids(pdg.boundaryBlocks(returnNode)));
+        assertEquals(Arrays.asList(1, 2), ids(pdg.commonBoundaryBlocks(Arrays.asList(loopBodyNode, returnNode))));
+    }
+
+    public void testSlices() {
+        PDG pdg = createPDG("whileLoop");
+        PDGNode incrementNode = node(pdg, "i++;");
+        AbstractVariable i = variable(pdg, "i");
+        assertEquals(Collections.singletonList("s = s + i;"),
+                labels(pdg.getAssignmentNodesOfVariableCriterion(variable(pdg, "s"))));
+
+        PDGSlice methodSlice = new PDGSlice(pdg, node(pdg, "int s = 0;").getBasicBlock());
+        assertEquals(Arrays.asList("int i = 0;", "while (i < n)", "i++;"),
+                labels(methodSlice.computeSlice(incrementNode, i)));
+
+        //the dependences carried by the loop do not belong to a region inside the loop
+        PDGSlice loopBodySlice = new PDGSlice(pdg, incrementNode.getBasicBlock());
+        assertEquals(Collections.singletonList("i++;"), labels(loopBodySlice.computeSlice(incrementNode, i)));
+    }
+
+    public void testDoWhileExitDependenceInSlice() {
+        PDG pdg = createPDG("doWhileWithBreak");
+        assertEdges(pdg, "DATA last: last = i; -> return last;");
+        PDGNode assignmentNode = node(pdg, "last = i;");
+        PDGNode returnNode = node(pdg, "return last;");
+
+        //the region starting at the block of the assignment reaches the return statement through the loop condition
+        PDGSlice slice = new PDGSlice(pdg, assignmentNode.getBasicBlock());
+        assertTrue(slice.nodeBelongsToBlockBasedRegion(node(pdg, "do")));
+        assertTrue(slice.nodeBelongsToBlockBasedRegion(returnNode));
+        assertFalse(slice.nodeBelongsToBlockBasedRegion(node(pdg, "int last = -1;")));
+
+        List<String> sliceLabels = labels(slice.computeSlice(returnNode, variable(pdg, "last")));
+        assertTrue(sliceLabels.toString(), sliceLabels.contains("last = i;"));
+        assertTrue(sliceLabels.toString(), sliceLabels.contains("i++;"));
+        assertFalse(sliceLabels.toString(), sliceLabels.contains("int last = -1;"));
+    }
+}
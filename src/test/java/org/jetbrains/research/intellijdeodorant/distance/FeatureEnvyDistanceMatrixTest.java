@@ -0,0 +1,101 @@
+package org.jetbrains.research.intellijdeodorant.distance;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.openapi.progress.util.ProgressIndicatorBase;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.research.intellijdeodorant.core.ast.ASTReader;
+import org.jetbrains.research.intellijdeodorant.core.distance.DistanceMatrix;
+import org.jetbrains.research.intellijdeodorant.core.distance.MoveMethodCandidateRefactoring;
+import org.jetbrains.research.intellijdeodorant.core.distance.MySystem;
+import org.jetbrains.research.intellijdeodorant.core.distance.ProjectInfo;
+
+import java.util.*;
+
+/**
+ * Move Method candidates found by {@link DistanceMatrix} on a small class hierarchy. The expected targets and
+ * dependency counts are those of the string-based implementation: the members of a superclass accessed by a method
+ * also count for its subclass, so a method accessing the members of both is moved to the subclass.
+ */
+public class FeatureEnvyDistanceMatrixTest extends LightJavaCodeInsightFixtureTestCase {
+    private static final Set<String> CLASS_NAMES = new HashSet<>(Arrays.asList("hierarchy.Shape", "hierarchy.Square", "hierarchy.Canvas"));
+
+    @NotNull
+    @Override
+    protected LightProjectDescriptor getProjectDescriptor() {
+        return LightJavaCodeInsightFixtureTestCase.JAVA_8;
+    }
+
+    private Map<String, MoveMethodCandidateRefactoring> getMoveMethodCandidates() {
+        myFixture.addFileToProject("src/hierarchy/Shape.java", "package hierarchy;\n" +
+                "\n" +
+                "public class Shape {\n" +
+                "    public double width;\n" +
+                "    public double height;\n" +
+                "}");
+        myFixture.addFileToProject("src/hierarchy/Square.java", "package hierarchy;\n" +
+                "\n" +
+                "public class Square extends Shape {\n" +
+                "    public double side;\n" +
+                "}");
+        myFixture.addFileToProject("src/hierarchy/Canvas.java", "package hierarchy;\n" +
+                "\n" +
+                "public class Canvas {\n" +
+                "    private Square square;\n" +
+                "    private String title;\n" +
+                "    private String subtitle;\n" +
+                "\n" +
+                "    public double describe() {\n" +
+                "        return square.width * square.height + square.side;\n" +
+                "    }\n" +
+                "\n" +
+                "    public String heading() {\n" +
+                "        return title + subtitle + square.side;\n" +
+                "    }\n" +
+                "\n" +
+                "    public double scale(Shape shape) {\n" +
+                "        return shape.width * shape.height;\n" +
+                "    }\n" +
+                "}");
+        myFixture.allowTreeAccessForAllFiles();
+        ProjectInfo projectInfo = new ProjectInfo(new AnalysisScope(getProject()), true);
+        MySystem system = new MySystem(new ASTReader(projectInfo, new ProgressIndicatorBase()).getSystemObject(), false);
+        DistanceMatrix distanceMatrix = new DistanceMatrix(system);
+        Map<String, MoveMethodCandidateRefactoring> candidates = new LinkedHashMap<>();
+        for (MoveMethodCandidateRefactoring candidate : distanceMatrix.getMoveMethodCandidateRefactoringsByAccess(CLASS_NAMES, new ProgressIndicatorBase())) {
+            assertNull(candidates.put(candidate.getSourceMethodDeclaration().getName(), candidate));
+        }
+        return candidates;
+    }
+
+    public void testSuperclassMembersCountForSubclass() {
+        Map<String, MoveMethodCandidateRefactoring> candidates = getMoveMethodCandidates();
+        assertEquals(new HashSet<>(Arrays.asList("describe", "scale")), candidates.keySet());
+
+        //Square accesses: side, plus width and height of Shape
+        MoveMethodCandidateRefactoring describe = candidates.get("describe");
+        assertEquals("hierarchy.Canvas", describe.getSource());
+        assertEquals("hierarchy.Square", describe.getTarget());
+        assertEquals(1, describe.getNumberOfDistinctEnviedElements());
+        assertEquals(1, describe.getDistinctSourceDependencies());
+        assertEquals(3, describe.getDistinctTargetDependencies());
+    }
+
+    public void testSuperclassAsTarget() {
+        Map<String, MoveMethodCandidateRefactoring> candidates = getMoveMethodCandidates();
+
+        MoveMethodCandidateRefactoring scale = candidates.get("scale");
+        assertNotNull(scale);
+        assertEquals("hierarchy.Canvas", scale.getSource());
+        assertEquals("hierarchy.Shape", scale.getTarget());
+        assertEquals(2, scale.getNumberOfDistinctEnviedElements());
+        assertEquals(0, scale.getDistinctSourceDependencies());
+        assertEquals(2, scale.getDistinctTargetDependencies());
+    }
+
+    public void testMethodAccessingMostlySourceClassStays() {
+        Map<String, MoveMethodCandidateRefactoring> candidates = getMoveMethodCandidates();
+        assertFalse(candidates.containsKey("heading"));
+    }
+}
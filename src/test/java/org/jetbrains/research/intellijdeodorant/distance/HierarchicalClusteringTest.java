@@ -0,0 +1,105 @@
+package org.jetbrains.research.intellijdeodorant.distance;
+
+import junit.framework.TestCase;
+import org.jetbrains.research.intellijdeodorant.core.distance.Entity;
+import org.jetbrains.research.intellijdeodorant.utils.math.Cluster;
+import org.jetbrains.research.intellijdeodorant.utils.math.Clustering;
+import org.jetbrains.research.intellijdeodorant.utils.math.SymmetricDistanceMatrix;
+
+import java.util.*;
+
+/**
+ * The expected clusters are those reported by the previous implementation, which rebuilt the distance matrix
+ * after every merge, on the same matrices.
+ */
+public class HierarchicalClusteringTest extends TestCase {
+    private static class NamedEntity extends Entity {
+        private final String name;
+
+        private NamedEntity(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Set<String> getEntitySet() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public Set<String> getFullEntitySet() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public String getClassOrigin() {
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private static Set<String> cluster(double[][] distances) {
+        ArrayList<Entity> entities = new ArrayList<>();
+        SymmetricDistanceMatrix distanceMatrix = new SymmetricDistanceMatrix(distances.length);
+        for (int i = 0; i < distances.length; i++) {
+            entities.add(new NamedEntity("e" + i));
+            for (int j = i + 1; j < distances.length; j++) {
+                distanceMatrix.set(i, j, distances[i][j]);
+            }
+        }
+        //the entities of a cluster are listed in the order they were merged
+        Set<String> clusters = new TreeSet<>();
+        for (Cluster cluster : Clustering.getInstance(distanceMatrix).clustering(entities)) {
+            clusters.add(cluster.getEntities().toString());
+        }
+        return clusters;
+    }
+
+    public void testTiedDistancesMergeInRowMajorOrder() {
+        double[][] distances = {
+                {0, .5, .2, .9, .9, .9},
+                {.5, 0, .2, .9, .9, .9},
+                {.2, .2, 0, .9, .9, .9},
+                {.9, .9, .9, 0, .3, .3},
+                {.9, .9, .9, .3, 0, .3},
+                {.9, .9, .9, .3, .3, 0}};
+        //e2 is as close to e0 as to e1, and the pair (e2, e0) comes first in the lower triangle
+        assertEquals(new TreeSet<>(Arrays.asList("[e0, e2, e1]", "[e3, e4, e5]")), cluster(distances));
+    }
+
+    public void testTiedPairsAreAllReported() {
+        double[][] distances = {
+                {0, .2, .7, .7, .9, .9, 1},
+                {.2, 0, .7, .7, .9, .9, 1},
+                {.7, .7, 0, .2, .9, .9, 1},
+                {.7, .7, .2, 0, .9, .9, 1},
+                {.9, .9, .9, .9, 0, .5, 1},
+                {.9, .9, .9, .9, .5, 0, 1},
+                {1, 1, 1, 1, 1, 1, 0}};
+        assertEquals(new TreeSet<>(Arrays.asList("[e0, e1, e2, e3]", "[e0, e1]", "[e2, e3]", "[e4, e5]")), cluster(distances));
+    }
+
+    public void testClustersGrownBySingletonsAreNotReported() {
+        double[][] distances = {
+                {0, .4, .8, .8, .8, 1},
+                {.4, 0, .4, .8, .8, 1},
+                {.8, .4, 0, .4, .8, 1},
+                {.8, .8, .4, 0, .4, 1},
+                {.8, .8, .8, .4, 0, .6},
+                {1, 1, 1, 1, .6, 0}};
+        assertEquals(Collections.emptySet(), cluster(distances));
+    }
+
+    public void testMergingStopsAtDistanceOne() {
+        double[][] distances = {
+                {0, .25, .5, 1, 1},
+                {.25, 0, .5, 1, 1},
+                {.5, .5, 0, .75, 1},
+                {1, 1, .75, 0, .25},
+                {1, 1, 1, .25, 0}};
+        assertEquals(new TreeSet<>(Arrays.asList("[e0, e1, e2]", "[e3, e4]")), cluster(distances));
+    }
+}